@@ -4,11 +4,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URI;
+
 @Configuration
 public class AwsS3Config {
 
@@ -21,33 +27,64 @@ public class AwsS3Config {
     @Value("${aws.s3.secret-key}")
     private String secretKey;
 
+    /** Endpoint alternativo compatível com S3 (ex.: MinIO local); vazio usa a AWS */
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
     @Bean
     public S3Client s3Client() {
-        if (accessKey == null || accessKey.isEmpty() || secretKey == null || secretKey.isEmpty()) {
-            return S3Client.builder()
-                    .region(Region.of(region))
-                    .build();
+        var builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider());
+
+        if (hasEndpointOverride()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(pathStyle());
         }
+        return builder.build();
+    }
 
-        return S3Client.builder()
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        var builder = S3AsyncClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(accessKey, secretKey)))
-                .build();
+                .credentialsProvider(credentialsProvider());
+
+        if (hasEndpointOverride()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(pathStyle());
+        }
+        return builder.build();
     }
 
     @Bean
     public S3Presigner s3Presigner() {
+        var builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider());
+
+        if (hasEndpointOverride()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(pathStyle());
+        }
+        return builder.build();
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
         if (accessKey == null || accessKey.isEmpty() || secretKey == null || secretKey.isEmpty()) {
-            return S3Presigner.builder()
-                    .region(Region.of(region))
-                    .build();
+            return DefaultCredentialsProvider.create();
         }
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
 
-        return S3Presigner.builder()
-                .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(accessKey, secretKey)))
+    private boolean hasEndpointOverride() {
+        return endpoint != null && !endpoint.isBlank();
+    }
+
+    // Stand-ins locais como o MinIO não resolvem buckets por subdomínio
+    private static S3Configuration pathStyle() {
+        return S3Configuration.builder()
+                .pathStyleAccessEnabled(true)
                 .build();
     }
 }
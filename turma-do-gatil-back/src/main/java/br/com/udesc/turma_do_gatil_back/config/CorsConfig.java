@@ -2,6 +2,7 @@ package br.com.udesc.turma_do_gatil_back.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -17,6 +18,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")
                 .allowedMethods("*")
                 .allowedHeaders("*")
+                .exposedHeaders(HttpHeaders.ETAG)
                 .allowCredentials(false)
                 .maxAge(3600);
     }
@@ -27,6 +29,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.addAllowedOriginPattern("*");
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader(HttpHeaders.ETAG);
         configuration.setAllowCredentials(false);
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,25 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import br.com.udesc.turma_do_gatil_back.services.DashboardService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Listener JPA das entidades contadas no dashboard: qualquer escrita invalida o cache agregado.
+ * O DashboardService é resolvido sob demanda porque os listeners são criados junto com o EntityManagerFactory.
+ */
+@RequiredArgsConstructor
+public class DashboardCacheListener {
+
+    private final ObjectProvider<DashboardService> dashboardService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        dashboardService.ifAvailable(DashboardService::invalidate);
+    }
+}
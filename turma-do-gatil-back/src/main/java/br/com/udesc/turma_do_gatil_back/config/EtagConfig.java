@@ -0,0 +1,22 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class EtagConfig {
+
+    /**
+     * ETag calculado sobre o corpo da resposta dos endpoints de dashboard:
+     * clientes que fazem polling recebem 304 enquanto os contadores não mudam.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> dashboardEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/dashboard", "/api/cats/dashboard-summary", "/api/cats/cat-summary");
+        registration.setName("dashboardEtagFilter");
+        return registration;
+    }
+}
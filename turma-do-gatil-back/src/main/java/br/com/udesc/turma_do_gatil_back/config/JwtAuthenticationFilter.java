@@ -1,35 +1,47 @@
 package br.com.udesc.turma_do_gatil_back.config;
 
-import br.com.udesc.turma_do_gatil_back.repositories.UserRepository;
+import br.com.udesc.turma_do_gatil_back.entities.User;
+import br.com.udesc.turma_do_gatil_back.services.PrincipalCacheService;
+import br.com.udesc.turma_do_gatil_back.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final PrincipalCacheService principalCacheService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /** Monta o usuário só com as claims do token, sem banco; a revogação vem do TokenRevocationService */
+    @Value("${security.jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -37,22 +49,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+
+        // Um único parse verifica assinatura e expiração; token inválido segue como não autenticado
+        try {
+            claims = jwtUtil.parseClaims(jwt);
+        } catch (JwtException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            UserDetails userDetails = resolvePrincipal(claims, username);
+            if (userDetails == null) {
+                log.debug("Rejected revoked JWT for user {}", username);
+                filterChain.doFilter(request, response);
+                return;
             }
+
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
+
+    /** Retorna null quando a versão do token foi revogada */
+    private UserDetails resolvePrincipal(Claims claims, String username) {
+        UUID userId = jwtUtil.extractUserId(claims);
+        int tokenVersion = jwtUtil.extractTokenVersion(claims);
+
+        // Tokens emitidos antes das claims embutidas ainda precisam do usuário completo
+        if (stateless && userId != null) {
+            if (tokenRevocationService.isRevoked(userId, tokenVersion)) {
+                return null;
+            }
+            return new JwtPrincipal(userId, username, claims.get(JwtUtil.CLAIM_NAME, String.class));
+        }
+
+        User user = principalCacheService.loadByUsername(username);
+        return tokenVersion < user.getTokenVersion() ? null : user;
+    }
 }
@@ -0,0 +1,32 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Usuário autenticado montado apenas a partir das claims verificadas do JWT, sem acesso ao banco.
+ */
+@Getter
+@RequiredArgsConstructor
+public class JwtPrincipal implements UserDetails {
+
+    private final UUID id;
+    private final String username;
+    private final String name;
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
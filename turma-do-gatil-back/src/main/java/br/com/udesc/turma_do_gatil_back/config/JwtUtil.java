@@ -1,9 +1,13 @@
 package br.com.udesc.turma_do_gatil_back.config;
 
+import br.com.udesc.turma_do_gatil_back.entities.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,17 +16,42 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    // Claims que permitem montar o usuário autenticado sem consultar o banco
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // Chave e parser são imutáveis e thread-safe: montados uma vez em vez de a cada token
+    private SecretKey signKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        parser = Jwts.parser().verifyWith(signKey).build();
+    }
+
+    /**
+     * Verifica assinatura e expiração e devolve as claims em um único parse.
+     *
+     * @throws JwtException se o token for inválido ou estiver expirado
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -32,31 +61,37 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        try {
+            // O parse já rejeita tokens expirados
+            return userDetails.getUsername().equals(parseClaims(token).getSubject());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /** Id do usuário, ou null em tokens emitidos antes das claims embutidas */
+    public UUID extractUserId(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /** Tokens sem a claim contam como versão 0 */
+    public int extractTokenVersion(Claims claims) {
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return version != null ? version : 0;
     }
 
-    public String generateToken(String username) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, user.getId().toString());
+        claims.put(CLAIM_NAME, user.getName());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return createToken(claims, user.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String username) {
@@ -65,12 +100,7 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
-
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
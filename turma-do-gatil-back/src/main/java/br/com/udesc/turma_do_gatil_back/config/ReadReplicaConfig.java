@@ -0,0 +1,134 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réplicas de leitura, ligadas por {@code datasource.replicas.enabled=true}. Sem isso o DataSource
+ * continua sendo o do Spring Boot, configurado só por {@code spring.datasource.*}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            AuditorAware<String> auditorAware,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${datasource.replicas.urls}") String urls,
+            @Value("${datasource.replicas.username}") String username,
+            @Value("${datasource.replicas.password}") String password,
+            @Value("${datasource.replicas.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${datasource.replicas.read-your-writes-seconds:5}") long readYourWritesSeconds,
+            @Value("${datasource.replicas.connection-timeout-ms:2000}") long connectionTimeoutMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        // Os pools ficam dentro do roteador, fora do alcance das métricas automáticas do Hikari
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        List<String> replicaUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        if (replicaUrls.isEmpty()) {
+            throw new IllegalStateException("datasource.replicas.enabled is true but datasource.replicas.urls is empty");
+        }
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            // Réplica fora do ar não impede a subida nem segura a requisição: o primário assume
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replica.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, maxLagSeconds,
+                Duration.ofSeconds(readYourWritesSeconds), auditorAware);
+        routing.refreshReplicaHealth();
+        meterRegistry.ifAvailable(registry -> Gauge.builder("datasource.replicas.available", routing,
+                        router -> router.getAvailableReplicas().size())
+                .description("Read replicas currently in rotation")
+                .register(registry));
+        log.info("Read replicas configured: {} ({} in rotation, max lag {}s, read-your-writes {}s)",
+                replicas.keySet(), routing.getAvailableReplicas().size(), maxLagSeconds, readYourWritesSeconds);
+        return routing;
+    }
+
+    /**
+     * A conexão física só é pedida no primeiro comando SQL, quando o Spring já marcou a transação
+     * como somente leitura ou não.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /**
+     * Devolve a conexão ao fim de cada transação. Com o Open Session in View a sessão dura a requisição
+     * inteira e, sem isso, a primeira conexão (réplica ou primário) seria reaproveitada até o fim.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Troca o dialeto JPA antes da fábrica de EntityManager ser inicializada; o gerenciador de transações
+     * usa o dialeto da fábrica.
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
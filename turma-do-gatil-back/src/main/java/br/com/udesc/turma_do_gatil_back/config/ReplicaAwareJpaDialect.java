@@ -0,0 +1,52 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Com réplicas ligadas, transações somente leitura leem do cache de segundo nível mas não gravam nele.
+ * O que vem de uma réplica pode estar atrasado, e no cache ficaria visível para todos, inclusive para
+ * quem acabou de escrever no primário, até a expiração da região.
+ *
+ * <p>Vai como propriedade do EntityManager e não só como CacheMode da sessão porque o
+ * {@code find} do Hibernate recalcula o modo a partir dessas propriedades. Com o Open Session in View
+ * a sessão é reaproveitada pelas transações seguintes da requisição, então o valor anterior volta ao fim.
+ */
+class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+
+        Object previousStoreMode = entityManager.getProperties().get(SpecHints.HINT_SPEC_CACHE_STORE_MODE);
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReadOnlyTransactionData(transactionData, entityManager,
+                previousStoreMode != null ? previousStoreMode : CacheStoreMode.USE);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            if (readOnly.entityManager().isOpen()) {
+                readOnly.entityManager().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, readOnly.previousStoreMode());
+            }
+            super.cleanupTransaction(readOnly.hibernateData());
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReadOnlyTransactionData(Object hibernateData, EntityManager entityManager, Object previousStoreMode) {
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as transações somente leitura ({@code @Transactional(readOnly = true)}) para as réplicas e
+ * todo o resto para o primário. Volta para o primário quando nenhuma réplica está dentro do atraso
+ * máximo de replicação, quando a réplica escolhida recusa a conexão e, por alguns segundos, depois
+ * de uma escrita do mesmo usuário (para que ele leia o que acabou de gravar).
+ *
+ * <p>A decisão depende da transação já estar aberta quando a conexão é pedida, por isso este
+ * DataSource fica atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    static final String LAG_QUERY = """
+            select case
+                when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+            end""";
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final long maxLagSeconds;
+    private final AuditorAware<String> auditorAware;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private volatile List<String> available = List.of();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary,
+                                    Map<String, HikariDataSource> replicas,
+                                    long maxLagSeconds,
+                                    Duration readYourWritesWindow,
+                                    AuditorAware<String> auditorAware) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.auditorAware = auditorAware;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String replica = chooseReplica();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replicas.get(replica).getConnection();
+        } catch (SQLException e) {
+            markUnavailable(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Os pools do Hikari usam as credenciais da configuração e também não aceitam outras por chamada.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by the replica router");
+    }
+
+    /**
+     * Réplica para a transação corrente ou null para usar o primário.
+     */
+    private String chooseReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+
+        String user = auditorAware.getCurrentAuditor().orElse("system");
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Só conta como escrita recente depois do commit; um rollback não deixa nada para ler
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(user, Boolean.TRUE);
+                }
+            });
+            return null;
+        }
+
+        if (recentWriters.getIfPresent(user) != null) {
+            return null;
+        }
+
+        List<String> candidates = available;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * Mede o atraso de cada réplica e mantém na rotação só as que estão dentro do limite.
+     * Uma réplica fora do ar ou atrasada volta sozinha na próxima verificação em que estiver em dia.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-interval-ms:5000}")
+    public synchronized void refreshReplicaHealth() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, HikariDataSource> entry : replicas.entrySet()) {
+            String replica = entry.getKey();
+            try (Connection connection = entry.getValue().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lagSeconds = resultSet.getDouble(1);
+                if (lagSeconds <= maxLagSeconds) {
+                    healthy.add(replica);
+                } else if (available.contains(replica)) {
+                    log.warn("Replica {} removed from rotation: {}s behind the primary (max {}s)",
+                            replica, Math.round(lagSeconds), maxLagSeconds);
+                }
+            } catch (SQLException e) {
+                if (available.contains(replica)) {
+                    log.warn("Replica {} removed from rotation: {}", replica, e.getMessage());
+                }
+            }
+        }
+
+        healthy.stream()
+                .filter(replica -> !available.contains(replica))
+                .forEach(replica -> log.info("Replica {} added to rotation", replica));
+        available = List.copyOf(healthy);
+    }
+
+    private synchronized void markUnavailable(String replica, SQLException e) {
+        if (available.contains(replica)) {
+            available = available.stream().filter(name -> !name.equals(replica)).toList();
+            log.warn("Replica {} removed from rotation, falling back to the primary: {}", replica, e.getMessage());
+        }
+    }
+
+    public List<String> getAvailableReplicas() {
+        return available;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
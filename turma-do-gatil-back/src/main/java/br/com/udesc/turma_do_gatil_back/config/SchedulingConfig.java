@@ -0,0 +1,9 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,70 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de segundo nível do Hibernate: uma região Caffeine por entidade, com tamanho máximo e
+ * expiração próprios. As regiões são criadas aqui e o Hibernate falha na subida se uma entidade
+ * anotada com @Cache apontar para uma região que não existe.
+ */
+@Slf4j
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String CATS_REGION = "cats";
+    public static final String ADOPTERS_REGION = "adopters";
+    public static final String PROPERTIES_REGION = "properties";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${jpa.second-level-cache.cats.max-size:10000}") long catsMaxSize,
+            @Value("${jpa.second-level-cache.cats.ttl-seconds:600}") long catsTtlSeconds,
+            @Value("${jpa.second-level-cache.adopters.max-size:10000}") long adoptersMaxSize,
+            @Value("${jpa.second-level-cache.adopters.ttl-seconds:600}") long adoptersTtlSeconds,
+            @Value("${jpa.second-level-cache.properties.max-size:1000}") long propertiesMaxSize,
+            @Value("${jpa.second-level-cache.properties.ttl-seconds:3600}") long propertiesTtlSeconds) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // O gerenciador padrão é único na JVM; um próprio por contexto deixa dois contextos (nos testes) criarem as regiões
+        URI uri = URI.create(getClass().getName() + "/" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+
+        createRegion(cacheManager, CATS_REGION, catsMaxSize, catsTtlSeconds);
+        createRegion(cacheManager, ADOPTERS_REGION, adoptersMaxSize, adoptersTtlSeconds);
+        createRegion(cacheManager, PROPERTIES_REGION, propertiesMaxSize, propertiesTtlSeconds);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        // A expiração limita por quanto tempo uma escrita feita fora do Hibernate pode ficar invisível
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        configuration.setStatisticsEnabled(true);
+
+        cacheManager.createCache(region, configuration);
+        log.info("Second-level cache region '{}' created (max {} entries, ttl {}s)", region, maxSize, ttlSeconds);
+    }
+}
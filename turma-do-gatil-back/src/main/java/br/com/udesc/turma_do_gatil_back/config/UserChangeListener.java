@@ -0,0 +1,33 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import br.com.udesc.turma_do_gatil_back.entities.User;
+import br.com.udesc.turma_do_gatil_back.services.PrincipalCacheService;
+import br.com.udesc.turma_do_gatil_back.services.TokenRevocationService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Listener JPA de User: alteração ou exclusão de um usuário invalida o cache de principais
+ * e atualiza as revogações de token usadas pela autenticação stateless.
+ * Os services são resolvidos sob demanda porque os listeners são criados junto com o EntityManagerFactory.
+ */
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ObjectProvider<PrincipalCacheService> principalCacheService;
+    private final ObjectProvider<TokenRevocationService> tokenRevocationService;
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        principalCacheService.ifAvailable(PrincipalCacheService::invalidate);
+        tokenRevocationService.ifAvailable(service -> service.onUserChanged(user, false));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        principalCacheService.ifAvailable(PrincipalCacheService::invalidate);
+        tokenRevocationService.ifAvailable(service -> service.onUserChanged(user, true));
+    }
+}
@@ -1,17 +1,26 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
+import br.com.udesc.turma_do_gatil_back.controllers.support.ETags;
 import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
 import br.com.udesc.turma_do_gatil_back.mappers.EntityMapper;
 import br.com.udesc.turma_do_gatil_back.services.AdopterService;
+import br.com.udesc.turma_do_gatil_back.services.ExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -23,16 +32,18 @@ import java.util.UUID;
 public class AdopterController {
 
     private final AdopterService adopterService;
+    private final ExportService exportService;
 
     @GetMapping
-    public ResponseEntity<Page<AdopterDto>> getAllAdopters(
+    public ResponseEntity<Slice<AdopterDto>> getAllAdopters(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "firstName") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String cpf) {
+            @RequestParam(required = false) String cpf,
+            @RequestParam(defaultValue = "false") boolean slice) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -40,21 +51,32 @@ public class AdopterController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Adopter> adopters;
-        if (name != null || email != null || cpf != null) {
-            adopters = adopterService.findWithFilters(name, email, cpf, pageable);
-        } else {
-            adopters = adopterService.findAll(pageable);
+        if (slice) {
+            return ResponseEntity.ok(adopterService.findSliceWithFilters(name, email, cpf, pageable));
         }
 
-        Page<AdopterDto> adoptersDto = EntityMapper.toPage(adopters, EntityMapper::toAdopterDto);
+        Page<AdopterDto> adoptersDto = adopterService.findWithFilters(name, email, cpf, pageable);
         return ResponseEntity.ok(adoptersDto);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAdopters(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String cpf) {
+
+        StreamingResponseBody body = out -> exportService.exportAdopters(name, email, cpf, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"adopters." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AdopterDto> getAdopterById(@PathVariable UUID id) {
         Optional<Adopter> adopter = adopterService.findById(id);
-        return adopter.map(a -> ResponseEntity.ok(EntityMapper.toAdopterDto(a)))
+        return adopter.map(a -> ResponseEntity.ok().eTag(ETags.of(a)).body(EntityMapper.toAdopterDto(a)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -86,11 +108,16 @@ public class AdopterController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateAdopter(@PathVariable UUID id, @RequestBody AdopterDto adopterDto) {
+    public ResponseEntity<?> updateAdopter(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody AdopterDto adopterDto) {
         try {
             Adopter adopter = EntityMapper.toAdopterEntity(adopterDto);
+            adopter.setVersion(ETags.parseIfMatch(ifMatch));
             Adopter updatedAdopter = adopterService.update(id, adopter);
-            return ResponseEntity.ok(EntityMapper.toAdopterDto(updatedAdopter));
+            return ResponseEntity.ok().eTag(ETags.of(updatedAdopter)).body(EntityMapper.toAdopterDto(updatedAdopter));
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -99,10 +126,13 @@ public class AdopterController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAdopter(@PathVariable UUID id) {
+    public ResponseEntity<Void> deleteAdopter(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            adopterService.deleteById(id);
+            adopterService.deleteById(id, ETags.parseIfMatch(ifMatch));
             return ResponseEntity.noContent().build();
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,24 +1,38 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
+import br.com.udesc.turma_do_gatil_back.controllers.support.ETags;
 import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
+import br.com.udesc.turma_do_gatil_back.dto.CursorPageDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
 import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
 import br.com.udesc.turma_do_gatil_back.mappers.EntityMapper;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import br.com.udesc.turma_do_gatil_back.services.AdoptionService;
+import br.com.udesc.turma_do_gatil_back.services.ExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/adoptions")
@@ -27,9 +41,10 @@ import java.util.UUID;
 public class AdoptionController {
 
     private final AdoptionService adoptionService;
+    private final ExportService exportService;
 
     @GetMapping
-    public ResponseEntity<Page<AdoptionDto>> getAllAdoptions(
+    public ResponseEntity<Slice<AdoptionDto>> getAllAdoptions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "adoptionDate") String sortBy,
@@ -40,29 +55,74 @@ public class AdoptionController {
             @RequestParam(required = false) String catName,
             @RequestParam(required = false) String adopterName,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(required = false) String expand) {
 
+        Set<AdoptionExpansion> expansions = AdoptionExpansion.parse(expand);
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Adoption> adoptions;
-        if (status != null || catId != null || adopterId != null || catName != null || adopterName != null || startDate != null || endDate != null) {
-            adoptions = adoptionService.findWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable);
-        } else {
-            adoptions = adoptionService.findAll(pageable);
+        if (slice) {
+            return ResponseEntity.ok(adoptionService.findSliceWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable, expansions));
         }
 
-        Page<AdoptionDto> adoptionsDto = EntityMapper.toPage(adoptions, EntityMapper::toAdoptionDto);
+        Page<AdoptionDto> adoptionsDto = adoptionService.findWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable, expansions);
         return ResponseEntity.ok(adoptionsDto);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<AdoptionDto>> scrollAdoptions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) AdoptionStatus status,
+            @RequestParam(required = false) UUID catId,
+            @RequestParam(required = false) UUID adopterId,
+            @RequestParam(required = false) String catName,
+            @RequestParam(required = false) String adopterName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String expand) {
+
+        Slice<AdoptionDto> adoptions = adoptionService.scrollWithFilters(status, catId, adopterId, catName, adopterName,
+                startDate, endDate, cursor, size, AdoptionExpansion.parse(expand));
+        return ResponseEntity.ok(EntityMapper.toCursorPage(adoptions, Function.identity(),
+                adoption -> KeysetCursor.of(adoption.getAdoptionDate(), adoption.getId())));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAdoptions(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) AdoptionStatus status,
+            @RequestParam(required = false) UUID catId,
+            @RequestParam(required = false) UUID adopterId,
+            @RequestParam(required = false) String catName,
+            @RequestParam(required = false) String adopterName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        // Validado antes de abrir o stream: depois que a resposta começa não dá mais para devolver 400
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> exportService.exportAdoptions(status, catId, adopterId, catName, adopterName,
+                startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"adoptions." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<AdoptionDto> getAdoptionById(@PathVariable UUID id) {
-        Optional<Adoption> adoption = adoptionService.findById(id);
-        return adoption.map(a -> ResponseEntity.ok(EntityMapper.toAdoptionDto(a)))
+    public ResponseEntity<AdoptionDto> getAdoptionById(@PathVariable UUID id,
+            @RequestParam(required = false) String expand) {
+        Set<AdoptionExpansion> expansions = AdoptionExpansion.parse(expand);
+        Optional<Adoption> adoption = adoptionService.findById(id, expansions);
+        return adoption.map(a -> ResponseEntity.ok().eTag(ETags.of(a, expansions)).body(EntityMapper.toAdoptionDto(a)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -77,12 +137,31 @@ public class AdoptionController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<AdoptionDto>> createAdoptions(@RequestBody List<AdoptionDto> adoptionDtos) {
+        try {
+            List<Adoption> adoptions = adoptionDtos.stream()
+                    .map(EntityMapper::toAdoptionEntity)
+                    .toList();
+            List<Adoption> savedAdoptions = adoptionService.saveAll(adoptions);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(savedAdoptions.stream().map(EntityMapper::toAdoptionDto).toList());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<AdoptionDto> updateAdoption(@PathVariable UUID id, @RequestBody AdoptionDto adoptionDto) {
+    public ResponseEntity<AdoptionDto> updateAdoption(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody AdoptionDto adoptionDto) {
         try {
             Adoption adoption = EntityMapper.toAdoptionEntity(adoptionDto);
+            adoption.setVersion(ETags.parseIfMatch(ifMatch));
             Adoption updatedAdoption = adoptionService.update(id, adoption);
-            return ResponseEntity.ok(EntityMapper.toAdoptionDto(updatedAdoption));
+            return ResponseEntity.ok().eTag(ETags.of(updatedAdoption)).body(EntityMapper.toAdoptionDto(updatedAdoption));
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -91,29 +170,32 @@ public class AdoptionController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAdoption(@PathVariable UUID id) {
+    public ResponseEntity<Void> deleteAdoption(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            adoptionService.deleteById(id);
+            adoptionService.deleteById(id, ETags.parseIfMatch(ifMatch));
             return ResponseEntity.noContent().build();
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping("/cat/{catId}")
-    public ResponseEntity<List<AdoptionDto>> getAdoptionsByCatId(@PathVariable UUID catId) {
+    public ResponseEntity<List<AdoptionDto>> getAdoptionsByCatId(@PathVariable UUID catId,
+            @RequestParam(required = false) String expand) {
         Pageable pageable = PageRequest.of(0, 1000); // Página grande para pegar todos
-        Page<Adoption> adoptionsPage = adoptionService.findByCatId(catId, pageable);
-        List<AdoptionDto> adoptionsDto = EntityMapper.toList(adoptionsPage.getContent(), EntityMapper::toAdoptionDto);
-        return ResponseEntity.ok(adoptionsDto);
+        Page<AdoptionDto> adoptionsPage = adoptionService.findByCatId(catId, pageable, AdoptionExpansion.parse(expand));
+        return ResponseEntity.ok(adoptionsPage.getContent());
     }
 
     @GetMapping("/adopter/{adopterId}")
-    public ResponseEntity<List<AdoptionDto>> getAdoptionsByAdopterId(@PathVariable UUID adopterId) {
+    public ResponseEntity<List<AdoptionDto>> getAdoptionsByAdopterId(@PathVariable UUID adopterId,
+            @RequestParam(required = false) String expand) {
         Pageable pageable = PageRequest.of(0, 1000); // Página grande para pegar todos
-        Page<Adoption> adoptionsPage = adoptionService.findByAdopterId(adopterId, pageable);
-        List<AdoptionDto> adoptionsDto = EntityMapper.toList(adoptionsPage.getContent(), EntityMapper::toAdoptionDto);
-        return ResponseEntity.ok(adoptionsDto);
+        Page<AdoptionDto> adoptionsPage = adoptionService.findByAdopterId(adopterId, pageable, AdoptionExpansion.parse(expand));
+        return ResponseEntity.ok(adoptionsPage.getContent());
     }
 
     @GetMapping("/status/{status}")
@@ -122,7 +204,8 @@ public class AdoptionController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "adoptionDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String expand) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -130,8 +213,7 @@ public class AdoptionController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Adoption> adoptions = adoptionService.findByStatus(status, pageable);
-        Page<AdoptionDto> adoptionsDto = EntityMapper.toPage(adoptions, EntityMapper::toAdoptionDto);
+        Page<AdoptionDto> adoptionsDto = adoptionService.findByStatus(status, pageable, AdoptionExpansion.parse(expand));
         return ResponseEntity.ok(adoptionsDto);
     }
 }
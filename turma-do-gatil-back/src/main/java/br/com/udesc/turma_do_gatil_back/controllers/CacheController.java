@@ -0,0 +1,26 @@
+package br.com.udesc.turma_do_gatil_back.controllers;
+
+import br.com.udesc.turma_do_gatil_back.dto.CacheRegionStatsDto;
+import br.com.udesc.turma_do_gatil_back.services.SecondLevelCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(secondLevelCacheService.getRegionStats());
+    }
+}
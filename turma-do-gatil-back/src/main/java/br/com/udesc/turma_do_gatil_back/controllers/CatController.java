@@ -1,29 +1,35 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
+import br.com.udesc.turma_do_gatil_back.controllers.support.ETags;
 import br.com.udesc.turma_do_gatil_back.dto.*;
-import br.com.udesc.turma_do_gatil_back.entities.Adopter;
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
-import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.Color;
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
-import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
+import br.com.udesc.turma_do_gatil_back.exceptions.CatNotFoundException;
 import br.com.udesc.turma_do_gatil_back.mappers.EntityMapper;
-import br.com.udesc.turma_do_gatil_back.services.AdopterService;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import br.com.udesc.turma_do_gatil_back.services.CatService;
-import br.com.udesc.turma_do_gatil_back.services.SterilizationService;
+import br.com.udesc.turma_do_gatil_back.services.DashboardService;
+import br.com.udesc.turma_do_gatil_back.services.ExportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/cats")
@@ -32,11 +38,11 @@ import java.util.UUID;
 public class CatController {
 
     private final CatService catService;
-    private final SterilizationService sterilizationService;
-    private final AdopterService adopterService;
+    private final DashboardService dashboardService;
+    private final ExportService exportService;
 
     @GetMapping
-    public ResponseEntity<Page<CatDto>> getAllCats(
+    public ResponseEntity<Slice<CatDto>> getAllCats(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
@@ -44,23 +50,56 @@ public class CatController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Color color,
             @RequestParam(required = false) Sex sex,
-            @RequestParam(required = false) CatAdoptionStatus adoptionStatus) {
+            @RequestParam(required = false) CatAdoptionStatus adoptionStatus,
+            @RequestParam(defaultValue = "false") boolean slice) {
 
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        Page<Cat> cats = catService.findWithFilters(name, color, sex, adoptionStatus, pageable);
-        Page<CatDto> catDtos = cats.map(EntityMapper::toCatDto);
+        // Slice dispensa o total: útil para listas com "carregar mais"
+        if (slice) {
+            return ResponseEntity.ok(catService.findSliceWithFilters(name, color, sex, adoptionStatus, pageable));
+        }
 
+        Page<CatDto> catDtos = catService.findWithFilters(name, color, sex, adoptionStatus, pageable);
         return ResponseEntity.ok(catDtos);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<CatDto>> scrollCats(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Color color,
+            @RequestParam(required = false) Sex sex,
+            @RequestParam(required = false) CatAdoptionStatus adoptionStatus) {
+
+        Slice<CatDto> cats = catService.scrollWithFilters(name, color, sex, adoptionStatus, cursor, size);
+        return ResponseEntity.ok(EntityMapper.toCursorPage(cats, Function.identity(),
+                cat -> KeysetCursor.of(cat.getName(), cat.getId())));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCats(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Color color,
+            @RequestParam(required = false) Sex sex,
+            @RequestParam(required = false) CatAdoptionStatus adoptionStatus) {
+
+        StreamingResponseBody body = out -> exportService.exportCats(name, color, sex, adoptionStatus, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cats." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CatDto> getCatById(@PathVariable UUID id) {
         Optional<Cat> cat = catService.findById(id);
         if (cat.isPresent()) {
             CatDto catDto = EntityMapper.toCatDto(cat.get());
-            return ResponseEntity.ok(catDto);
+            return ResponseEntity.ok().eTag(ETags.of(cat.get())).body(catDto);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -74,27 +113,49 @@ public class CatController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCatDto);
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<CatDto> updateCat(@PathVariable UUID id, @RequestBody CatDto catDto) {
-        if (!catService.findById(id).isPresent()) {
+    @PostMapping("/batch")
+    public ResponseEntity<List<CatDto>> createCats(@RequestBody List<CatDto> catDtos) {
+        List<Cat> cats = catDtos.stream().map(EntityMapper::toCatEntity).toList();
+        List<Cat> savedCats = catService.saveAll(cats);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedCats.stream().map(EntityMapper::toCatDto).toList());
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<CatDto>> updateCats(@RequestBody List<CatDto> catDtos) {
+        try {
+            List<Cat> cats = catDtos.stream().map(EntityMapper::toCatEntity).toList();
+            List<Cat> updatedCats = catService.updateAll(cats);
+            return ResponseEntity.ok(updatedCats.stream().map(EntityMapper::toCatDto).toList());
+        } catch (CatNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
+    }
 
-        Cat cat = EntityMapper.toCatEntity(catDto);
-        cat.setId(id);
-        Cat savedCat = catService.update(id, cat);
-        CatDto savedCatDto = EntityMapper.toCatDto(savedCat);
-        return ResponseEntity.ok(savedCatDto);
+    @PutMapping("/{id}")
+    public ResponseEntity<CatDto> updateCat(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody CatDto catDto) {
+        try {
+            Cat cat = EntityMapper.toCatEntity(catDto);
+            cat.setId(id);
+            cat.setVersion(ETags.parseIfMatch(ifMatch));
+            Cat savedCat = catService.update(id, cat);
+            CatDto savedCatDto = EntityMapper.toCatDto(savedCat);
+            return ResponseEntity.ok().eTag(ETags.of(savedCat)).body(savedCatDto);
+        } catch (CatNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCat(@PathVariable UUID id) {
-        if (!catService.findById(id).isPresent()) {
+    public ResponseEntity<Void> deleteCat(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            catService.deleteById(id, ETags.parseIfMatch(ifMatch));
+            return ResponseEntity.noContent().build();
+        } catch (CatNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
-
-        catService.deleteById(id);
-        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/needing-sterilization")
@@ -128,22 +189,7 @@ public class CatController {
     @GetMapping("/dashboard-summary")
     public ResponseEntity<DashboardSummaryDto> getDashboardSummary() {
         try {
-            // Contar gatos disponíveis para adoção
-            Long availableCatsCount = catService.countByAdoptionStatus(CatAdoptionStatus.NAO_ADOTADO);
-
-            // Contar castrações pendentes
-            Long pendingSterilizationsCount = sterilizationService.countByStatus(SterilizationStatus.SCHEDULED);
-
-            // Contar total de adotantes cadastrados
-            Long registeredAdoptersCount = adopterService.countAll();
-
-            DashboardSummaryDto summary = new DashboardSummaryDto(
-                    availableCatsCount,
-                    pendingSterilizationsCount,
-                    registeredAdoptersCount
-            );
-
-            return ResponseEntity.ok(summary);
+            return ResponseEntity.ok(dashboardService.getDashboardSummary());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -152,26 +198,7 @@ public class CatController {
     @GetMapping("/cat-summary")
     public ResponseEntity<CatSummaryDto> getCatSummary() {
         try {
-            // Contar gatos disponíveis para adoção
-            Long availableCatsCount = catService.countByAdoptionStatus(CatAdoptionStatus.NAO_ADOTADO);
-            
-            // Contar gatos adotados
-            Long adoptedCatsCount = catService.countByAdoptionStatus(CatAdoptionStatus.ADOTADO);
-            
-            // Contar gatos em processo de adoção
-            Long inProcessCatsCount = catService.countByAdoptionStatus(CatAdoptionStatus.EM_PROCESSO);
-            
-            // Contar total de gatos
-            Long totalCatsCount = catService.countAll();
-
-            CatSummaryDto summary = new CatSummaryDto(
-                    availableCatsCount,
-                    adoptedCatsCount,
-                    inProcessCatsCount,
-                    totalCatsCount
-            );
-
-            return ResponseEntity.ok(summary);
+            return ResponseEntity.ok(dashboardService.getCatSummary());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -0,0 +1,24 @@
+package br.com.udesc.turma_do_gatil_back.controllers;
+
+import br.com.udesc.turma_do_gatil_back.dto.DashboardDto;
+import br.com.udesc.turma_do_gatil_back.services.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    public ResponseEntity<DashboardDto> getDashboard() {
+        return ResponseEntity.ok(dashboardService.getDashboard());
+    }
+}
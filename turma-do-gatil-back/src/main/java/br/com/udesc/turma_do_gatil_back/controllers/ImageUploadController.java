@@ -1,16 +1,33 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
-import br.com.udesc.turma_do_gatil_back.dto.ImageUploadResponseDto;
+import br.com.udesc.turma_do_gatil_back.dto.CompleteUploadRequestDto;
+import br.com.udesc.turma_do_gatil_back.dto.ImageUploadStatsDto;
+import br.com.udesc.turma_do_gatil_back.dto.PresignUploadRequestDto;
+import br.com.udesc.turma_do_gatil_back.dto.PresignedUploadDto;
+import br.com.udesc.turma_do_gatil_back.exceptions.AdoptionNotFoundException;
+import br.com.udesc.turma_do_gatil_back.exceptions.CatNotFoundException;
+import br.com.udesc.turma_do_gatil_back.exceptions.UploadQueueFullException;
+import br.com.udesc.turma_do_gatil_back.services.AdoptionService;
+import br.com.udesc.turma_do_gatil_back.services.CatService;
 import br.com.udesc.turma_do_gatil_back.services.S3Service;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/images")
@@ -20,35 +37,124 @@ import java.util.Map;
 public class ImageUploadController {
 
     private final S3Service s3Service;
+    private final CatService catService;
+    private final AdoptionService adoptionService;
 
+    /**
+     * A thread do servlet é liberada assim que o envio entra na fila; a resposta é escrita
+     * quando o pipeline conclui o envio para o S3.
+     */
     @PostMapping(value = "/upload")
-    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+    public CompletableFuture<ResponseEntity<?>> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
             log.info("Recebendo requisição de upload de imagem: {}", file.getOriginalFilename());
-            
-            String imageUrl = s3Service.uploadImage(file);
-            
-            ImageUploadResponseDto response = new ImageUploadResponseDto(
-                    file.getOriginalFilename(),
-                    imageUrl,
-                    file.getSize(),
-                    file.getContentType()
-            );
-            
-            log.info("Upload realizado com sucesso. URL: {}", imageUrl);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            
+
+            return s3Service.uploadImage(file)
+                    .<ResponseEntity<?>>thenApply(response -> {
+                        log.info("Upload realizado com sucesso. URL: {}", response.getFileUrl());
+                        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    })
+                    .exceptionally(e -> failure("Erro ao fazer upload da imagem", e));
+
         } catch (IllegalArgumentException e) {
             log.warn("Erro de validação no upload: {}", e.getMessage());
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
-            
-        } catch (Exception e) {
-            log.error("Erro ao fazer upload da imagem: {}", e.getMessage(), e);
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Erro ao fazer upload da imagem: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return CompletableFuture.completedFuture(error(HttpStatus.BAD_REQUEST, e.getMessage()));
+
+        } catch (UploadQueueFullException e) {
+            log.warn("Upload recusado: {}", e.getMessage());
+            return CompletableFuture.completedFuture(error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+        }
+    }
+
+    /**
+     * Recebe a imagem como corpo bruto da requisição (sem multipart) e a repassa ao S3 enquanto lê,
+     * sem arquivo temporário nem cópia completa em memória. O tipo é detectado pelo conteúdo.
+     */
+    @PostMapping(value = "/upload/stream", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public CompletableFuture<ResponseEntity<?>> uploadImageStream(@RequestParam(value = "fileName", required = false) String fileName,
+                                                                  HttpServletRequest request) {
+        try {
+            log.info("Recebendo upload de imagem em streaming: {} ({} bytes declarados)", fileName, request.getContentLengthLong());
+
+            return s3Service.uploadImageStream(request.getInputStream(), fileName, request.getContentLengthLong())
+                    .<ResponseEntity<?>>thenApply(response -> {
+                        log.info("Upload realizado com sucesso. URL: {}", response.getFileUrl());
+                        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    })
+                    .exceptionally(e -> failure("Erro ao fazer upload da imagem", e));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.completedFuture(failure("Erro ao fazer upload da imagem", e));
         }
     }
+
+    /**
+     * Upload direto para o bucket: o cliente faz o PUT na URL retornada e depois chama /complete.
+     */
+    @PostMapping("/presign")
+    public ResponseEntity<?> presignUpload(@Valid @RequestBody PresignUploadRequestDto request) {
+        try {
+            PresignedUploadDto presigned = s3Service.presignUpload(
+                    request.getFileName(), request.getContentType(), request.getFileSize());
+            return ResponseEntity.ok(presigned);
+        } catch (IllegalArgumentException e) {
+            log.warn("Erro de validação no upload pré-assinado: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Confirma que o objeto existe no bucket, gera as variantes e só então o vincula à foto do gato
+     * ou ao termo de adoção. O vínculo roda na thread que concluiu o envio, com o usuário da requisição,
+     * para que a auditoria e o roteamento de leitura após escrita enxerguem quem fez o upload.
+     */
+    @PostMapping("/complete")
+    public CompletableFuture<ResponseEntity<?>> completeUpload(@Valid @RequestBody CompleteUploadRequestDto request) {
+        try {
+            Executor asCaller = new DelegatingSecurityContextExecutor(Runnable::run, SecurityContextHolder.getContext());
+            return s3Service.completeUpload(request.getKey())
+                    .<ResponseEntity<?>>thenApplyAsync(upload -> {
+                        switch (request.getTarget()) {
+                            case CAT_PHOTO -> catService.updatePhotoUrl(request.getTargetId(), upload.getFileUrl());
+                            case ADOPTION_TERM -> adoptionService.updateAdoptionTermPhoto(request.getTargetId(), upload.getFileUrl());
+                        }
+
+                        log.info("Upload {} vinculado a {} {}", request.getKey(), request.getTarget(), request.getTargetId());
+                        return ResponseEntity.ok(upload);
+                    }, asCaller)
+                    .exceptionally(e -> failure("Erro ao confirmar upload", e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failure("Erro ao confirmar upload", e));
+        }
+    }
+
+    @GetMapping("/upload/stats")
+    public ResponseEntity<ImageUploadStatsDto> getUploadStats() {
+        return ResponseEntity.ok(s3Service.getUploadStats());
+    }
+
+    /** Falhas do pipeline chegam embrulhadas em CompletionException */
+    private static ResponseEntity<?> failure(String context, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        if (cause instanceof CatNotFoundException || cause instanceof AdoptionNotFoundException) {
+            return ResponseEntity.notFound().build();
+        }
+        if (cause instanceof IllegalArgumentException) {
+            log.warn("{}: {}", context, cause.getMessage());
+            return error(HttpStatus.BAD_REQUEST, cause.getMessage());
+        }
+        if (cause instanceof UploadQueueFullException) {
+            log.warn("{}: {}", context, cause.getMessage());
+            return error(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage());
+        }
+
+        log.error("{}: {}", context, cause.getMessage(), cause);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, context + ": " + cause.getMessage());
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
 }
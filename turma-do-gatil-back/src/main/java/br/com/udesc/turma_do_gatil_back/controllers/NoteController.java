@@ -1,15 +1,23 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
+import br.com.udesc.turma_do_gatil_back.controllers.support.ETags;
+import br.com.udesc.turma_do_gatil_back.dto.CursorPageDto;
 import br.com.udesc.turma_do_gatil_back.dto.NoteDto;
 import br.com.udesc.turma_do_gatil_back.entities.Note;
+import br.com.udesc.turma_do_gatil_back.exceptions.NoteNotFoundException;
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
 import br.com.udesc.turma_do_gatil_back.mappers.EntityMapper;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import br.com.udesc.turma_do_gatil_back.services.NoteService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +26,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -28,7 +37,7 @@ public class NoteController {
     private final NoteService noteService;
 
     @GetMapping
-    public ResponseEntity<Page<NoteDto>> getAllNotes(
+    public ResponseEntity<Slice<NoteDto>> getAllNotes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "date") String sortBy,
@@ -36,7 +45,8 @@ public class NoteController {
             @RequestParam(required = false) UUID catId,
             @RequestParam(required = false) String text,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean slice) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -44,21 +54,32 @@ public class NoteController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Note> notes;
-        if (catId != null || text != null || startDate != null || endDate != null) {
-            notes = noteService.findWithFilters(catId, text, startDate, endDate, pageable);
-        } else {
-            notes = noteService.findAll(pageable);
+        if (slice) {
+            return ResponseEntity.ok(noteService.findSliceWithFilters(catId, text, startDate, endDate, pageable));
         }
 
-        Page<NoteDto> notesDto = EntityMapper.toPage(notes, EntityMapper::toNoteDto);
+        Page<NoteDto> notesDto = noteService.findWithFilters(catId, text, startDate, endDate, pageable);
         return ResponseEntity.ok(notesDto);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<NoteDto>> scrollNotes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) UUID catId,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        Slice<NoteDto> notes = noteService.scrollWithFilters(catId, text, startDate, endDate, cursor, size);
+        return ResponseEntity.ok(EntityMapper.toCursorPage(notes, Function.identity(),
+                note -> KeysetCursor.of(note.getDate(), note.getId())));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<NoteDto> getNoteById(@PathVariable UUID id) {
         Optional<Note> note = noteService.findById(id);
-        return note.map(n -> ResponseEntity.ok(EntityMapper.toNoteDto(n)))
+        return note.map(n -> ResponseEntity.ok().eTag(ETags.of(n)).body(EntityMapper.toNoteDto(n)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -73,12 +94,42 @@ public class NoteController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<NoteDto>> createNotes(@RequestBody List<NoteDto> noteDtos) {
+        try {
+            List<Note> notes = noteDtos.stream().map(EntityMapper::toNoteEntity).toList();
+            List<Note> savedNotes = noteService.saveAll(notes);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(savedNotes.stream().map(EntityMapper::toNoteDto).toList());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<NoteDto>> updateNotes(@RequestBody List<NoteDto> noteDtos) {
+        try {
+            List<Note> notes = noteDtos.stream().map(EntityMapper::toNoteEntity).toList();
+            List<Note> updatedNotes = noteService.updateAll(notes);
+            return ResponseEntity.ok(updatedNotes.stream().map(EntityMapper::toNoteDto).toList());
+        } catch (NoteNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<NoteDto> updateNote(@PathVariable UUID id, @RequestBody NoteDto noteDto) {
+    public ResponseEntity<NoteDto> updateNote(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody NoteDto noteDto) {
         try {
             Note note = EntityMapper.toNoteEntity(noteDto);
+            note.setVersion(ETags.parseIfMatch(ifMatch));
             Note updatedNote = noteService.update(id, note);
-            return ResponseEntity.ok(EntityMapper.toNoteDto(updatedNote));
+            return ResponseEntity.ok().eTag(ETags.of(updatedNote)).body(EntityMapper.toNoteDto(updatedNote));
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -87,10 +138,13 @@ public class NoteController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteNote(@PathVariable UUID id) {
+    public ResponseEntity<Void> deleteNote(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            noteService.deleteById(id);
+            noteService.deleteById(id, ETags.parseIfMatch(ifMatch));
             return ResponseEntity.noContent().build();
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -99,8 +153,7 @@ public class NoteController {
     @GetMapping("/cat/{catId}")
     public ResponseEntity<List<NoteDto>> getNotesByCatId(@PathVariable UUID catId) {
         Pageable pageable = PageRequest.of(0, 1000); // Página grande para pegar todos
-        Page<Note> notesPage = noteService.findByCatId(catId, pageable);
-        List<NoteDto> notesDto = EntityMapper.toList(notesPage.getContent(), EntityMapper::toNoteDto);
-        return ResponseEntity.ok(notesDto);
+        Page<NoteDto> notesPage = noteService.findByCatId(catId, pageable);
+        return ResponseEntity.ok(notesPage.getContent());
     }
 }
@@ -1,17 +1,25 @@
 package br.com.udesc.turma_do_gatil_back.controllers;
 
+import br.com.udesc.turma_do_gatil_back.controllers.support.ETags;
+import br.com.udesc.turma_do_gatil_back.dto.CursorPageDto;
 import br.com.udesc.turma_do_gatil_back.dto.SterilizationDaysDto;
 import br.com.udesc.turma_do_gatil_back.dto.SterilizationDto;
 import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
+import br.com.udesc.turma_do_gatil_back.exceptions.SterilizationNotFoundException;
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
 import br.com.udesc.turma_do_gatil_back.mappers.EntityMapper;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import br.com.udesc.turma_do_gatil_back.services.SterilizationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +28,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/sterilizations")
@@ -30,7 +39,7 @@ public class SterilizationController {
     private final SterilizationService sterilizationService;
 
     @GetMapping
-    public ResponseEntity<Page<SterilizationDto>> getAllSterilizations(
+    public ResponseEntity<Slice<SterilizationDto>> getAllSterilizations(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "sterilizationDate") String sortBy,
@@ -38,7 +47,8 @@ public class SterilizationController {
             @RequestParam(required = false) UUID catId,
             @RequestParam(required = false) SterilizationStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean slice) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -46,21 +56,32 @@ public class SterilizationController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Sterilization> sterilizations;
-        if (catId != null || status != null || startDate != null || endDate != null) {
-            sterilizations = sterilizationService.findWithFilters(catId, status, startDate, endDate, pageable);
-        } else {
-            sterilizations = sterilizationService.findAll(pageable);
+        if (slice) {
+            return ResponseEntity.ok(sterilizationService.findSliceWithFilters(catId, status, startDate, endDate, pageable));
         }
 
-        Page<SterilizationDto> sterilizationsDto = EntityMapper.toPage(sterilizations, EntityMapper::toSterilizationDto);
+        Page<SterilizationDto> sterilizationsDto = sterilizationService.findWithFilters(catId, status, startDate, endDate, pageable);
         return ResponseEntity.ok(sterilizationsDto);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDto<SterilizationDto>> scrollSterilizations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) UUID catId,
+            @RequestParam(required = false) SterilizationStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        Slice<SterilizationDto> sterilizations = sterilizationService.scrollWithFilters(catId, status, startDate, endDate, cursor, size);
+        return ResponseEntity.ok(EntityMapper.toCursorPage(sterilizations, Function.identity(),
+                sterilization -> KeysetCursor.of(sterilization.getSterilizationDate(), sterilization.getId())));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SterilizationDto> getSterilizationById(@PathVariable UUID id) {
         Optional<Sterilization> sterilization = sterilizationService.findById(id);
-        return sterilization.map(s -> ResponseEntity.ok(EntityMapper.toSterilizationDto(s)))
+        return sterilization.map(s -> ResponseEntity.ok().eTag(ETags.of(s)).body(EntityMapper.toSterilizationDto(s)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -75,12 +96,42 @@ public class SterilizationController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<SterilizationDto>> createSterilizations(@RequestBody List<SterilizationDto> sterilizationDtos) {
+        try {
+            List<Sterilization> sterilizations = sterilizationDtos.stream().map(EntityMapper::toSterilizationEntity).toList();
+            List<Sterilization> savedSterilizations = sterilizationService.saveAll(sterilizations);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(savedSterilizations.stream().map(EntityMapper::toSterilizationDto).toList());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<SterilizationDto>> updateSterilizations(@RequestBody List<SterilizationDto> sterilizationDtos) {
+        try {
+            List<Sterilization> sterilizations = sterilizationDtos.stream().map(EntityMapper::toSterilizationEntity).toList();
+            List<Sterilization> updatedSterilizations = sterilizationService.updateAll(sterilizations);
+            return ResponseEntity.ok(updatedSterilizations.stream().map(EntityMapper::toSterilizationDto).toList());
+        } catch (SterilizationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<SterilizationDto> updateSterilization(@PathVariable UUID id, @RequestBody SterilizationDto sterilizationDto) {
+    public ResponseEntity<SterilizationDto> updateSterilization(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody SterilizationDto sterilizationDto) {
         try {
             Sterilization sterilization = EntityMapper.toSterilizationEntity(sterilizationDto);
+            sterilization.setVersion(ETags.parseIfMatch(ifMatch));
             Sterilization updatedSterilization = sterilizationService.update(id, sterilization);
-            return ResponseEntity.ok(EntityMapper.toSterilizationDto(updatedSterilization));
+            return ResponseEntity.ok().eTag(ETags.of(updatedSterilization)).body(EntityMapper.toSterilizationDto(updatedSterilization));
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -89,10 +140,13 @@ public class SterilizationController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteSterilization(@PathVariable UUID id) {
+    public ResponseEntity<Void> deleteSterilization(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            sterilizationService.deleteById(id);
+            sterilizationService.deleteById(id, ETags.parseIfMatch(ifMatch));
             return ResponseEntity.noContent().build();
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -101,9 +155,8 @@ public class SterilizationController {
     @GetMapping("/cat/{catId}")
     public ResponseEntity<List<SterilizationDto>> getSterilizationsByCatId(@PathVariable UUID catId) {
         Pageable pageable = PageRequest.of(0, 1000); // Página grande para pegar todos
-        Page<Sterilization> sterilizationsPage = sterilizationService.findByCatId(catId, pageable);
-        List<SterilizationDto> sterilizationsDto = EntityMapper.toList(sterilizationsPage.getContent(), EntityMapper::toSterilizationDto);
-        return ResponseEntity.ok(sterilizationsDto);
+        Page<SterilizationDto> sterilizationsPage = sterilizationService.findByCatId(catId, pageable);
+        return ResponseEntity.ok(sterilizationsPage.getContent());
     }
 
     @GetMapping("/status/{status}")
@@ -120,8 +173,7 @@ public class SterilizationController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Sterilization> sterilizations = sterilizationService.findByStatus(status, pageable);
-        Page<SterilizationDto> sterilizationsDto = EntityMapper.toPage(sterilizations, EntityMapper::toSterilizationDto);
+        Page<SterilizationDto> sterilizationsDto = sterilizationService.findByStatus(status, pageable);
         return ResponseEntity.ok(sterilizationsDto);
     }
 
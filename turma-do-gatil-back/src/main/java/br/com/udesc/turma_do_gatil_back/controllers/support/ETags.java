@@ -0,0 +1,75 @@
+package br.com.udesc.turma_do_gatil_back.controllers.support;
+
+import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.entities.BaseAuditableEntity;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
+
+import java.util.Set;
+
+/**
+ * ETag de um registro a partir da sua versão. O GET devolve a ETag (e 304 quando o If-None-Match
+ * coincide); PUT e DELETE conferem o If-Match com a versão gravada e respondem 412 se divergirem.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(BaseAuditableEntity entity) {
+        return "\"" + entity.getVersion() + "\"";
+    }
+
+    /**
+     * ETag de uma adoção com as associações expandidas embutidas: muda também quando o gato, o adotante
+     * ou o endereço dele mudam, para que o GET condicional não devolva 304 com dados embutidos antigos.
+     * A versão da própria adoção vem antes do primeiro ';', que é o que o If-Match de uma escrita compara.
+     */
+    public static String of(Adoption adoption, Set<AdoptionExpansion> expand) {
+        StringBuilder tag = new StringBuilder().append(adoption.getVersion());
+        if (expand.contains(AdoptionExpansion.CAT)) {
+            tag.append(";cat=").append(versionOf(adoption.getCat()));
+        }
+        if (expand.contains(AdoptionExpansion.ADOPTER)) {
+            Adopter adopter = adoption.getAdopter();
+            tag.append(";adopter=").append(versionOf(adopter))
+                    .append(";address=").append(versionOf(adopter != null ? adopter.getAddress() : null));
+        }
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Versão esperada pelo cliente, ou null sem If-Match (ou com "*"), quando vale a versão atual.
+     * Uma escrita confere uma única versão, então listas de ETags não são aceitas.
+     *
+     * @throws IllegalArgumentException se o cabeçalho não for uma única ETag (400)
+     * @throws VersionConflictException se for uma ETag que não corresponde a nenhuma versão (412)
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        if (value.contains("\"")) {
+            throw new IllegalArgumentException("If-Match must carry a single ETag: " + ifMatch);
+        }
+        int associations = value.indexOf(';');
+        try {
+            return Long.parseLong(associations >= 0 ? value.substring(0, associations) : value);
+        } catch (NumberFormatException e) {
+            throw new VersionConflictException("If-Match does not match any version: " + ifMatch);
+        }
+    }
+
+    private static String versionOf(BaseAuditableEntity entity) {
+        return entity != null ? String.valueOf(entity.getVersion()) : "none";
+    }
+}
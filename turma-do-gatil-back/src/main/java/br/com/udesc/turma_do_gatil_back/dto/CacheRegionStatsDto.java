@@ -0,0 +1,16 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatsDto {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio;
+}
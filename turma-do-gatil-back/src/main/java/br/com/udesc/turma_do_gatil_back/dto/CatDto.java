@@ -2,12 +2,14 @@ package br.com.udesc.turma_do_gatil_back.dto;
 
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.Color;
+import br.com.udesc.turma_do_gatil_back.enums.ImageVariant;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -22,4 +24,11 @@ public class CatDto {
     private LocalDateTime shelterEntryDate;
     private String photoUrl;
     private CatAdoptionStatus adoptionStatus;
+    // Miniatura e larguras responsivas por nome (thumb, w320...); null quando a foto não tem variantes
+    private Map<String, String> photoVariants;
+
+    public CatDto(UUID id, String name, Color color, Sex sex, LocalDateTime birthDate,
+                  LocalDateTime shelterEntryDate, String photoUrl, CatAdoptionStatus adoptionStatus) {
+        this(id, name, color, sex, birthDate, shelterEntryDate, photoUrl, adoptionStatus, ImageVariant.urlsFor(photoUrl));
+    }
 }
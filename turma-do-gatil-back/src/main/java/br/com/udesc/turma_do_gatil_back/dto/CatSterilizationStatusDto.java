@@ -1,6 +1,7 @@
 package br.com.udesc.turma_do_gatil_back.dto;
 
 import br.com.udesc.turma_do_gatil_back.enums.Color;
+import br.com.udesc.turma_do_gatil_back.enums.ImageVariant;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationEligibilityStatus;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -24,4 +26,13 @@ public class CatSterilizationStatusDto {
     private String photoUrl;
     private Integer ageInDays;
     private SterilizationEligibilityStatus sterilizationStatus;
+    // Variantes da foto, como em CatDto
+    private Map<String, String> photoVariants;
+
+    public CatSterilizationStatusDto(UUID id, String name, Color color, Sex sex, LocalDateTime birthDate,
+                                     LocalDateTime shelterEntryDate, String photoUrl, Integer ageInDays,
+                                     SterilizationEligibilityStatus sterilizationStatus) {
+        this(id, name, color, sex, birthDate, shelterEntryDate, photoUrl, ageInDays, sterilizationStatus,
+                ImageVariant.urlsFor(photoUrl));
+    }
 }
@@ -0,0 +1,25 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import br.com.udesc.turma_do_gatil_back.enums.ImageTarget;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompleteUploadRequestDto {
+
+    @NotBlank(message = "Chave do arquivo é obrigatória")
+    private String key;
+
+    @NotNull(message = "Destino da imagem é obrigatório")
+    private ImageTarget target;
+
+    @NotNull(message = "ID do destino é obrigatório")
+    private UUID targetId;
+}
@@ -0,0 +1,21 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private Map<CatAdoptionStatus, Long> catsByAdoptionStatus;
+    private Long totalCatsCount;
+    private Map<SterilizationStatus, Long> sterilizationsByStatus;
+    private Map<AdoptionStatus, Long> adoptionsByStatus;
+    private Long registeredAdoptersCount;
+}
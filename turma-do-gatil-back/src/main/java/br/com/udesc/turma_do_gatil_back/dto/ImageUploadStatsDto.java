@@ -0,0 +1,19 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadStatsDto {
+    private int queuedUploads;
+    private int activeUploads;
+    private long bytesInFlight;
+    private long completedUploads;
+    private long failedUploads;
+    private long rejectedUploads;
+    private int maxConcurrentUploads;
+    private int queueCapacity;
+}
@@ -0,0 +1,24 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignUploadRequestDto {
+
+    @NotBlank(message = "Nome do arquivo é obrigatório")
+    private String fileName;
+
+    @NotBlank(message = "Tipo do arquivo é obrigatório")
+    private String contentType;
+
+    @NotNull(message = "Tamanho do arquivo é obrigatório")
+    @Positive(message = "Tamanho do arquivo deve ser positivo")
+    private Long fileSize;
+}
@@ -0,0 +1,21 @@
+package br.com.udesc.turma_do_gatil_back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUploadDto {
+    private String key;
+    private String uploadUrl;
+    private String method;
+    /** Headers que o cliente precisa enviar exatamente como estão: fazem parte da assinatura */
+    private Map<String, String> headers;
+    private LocalDateTime expiresAt;
+    private String fileUrl;
+}
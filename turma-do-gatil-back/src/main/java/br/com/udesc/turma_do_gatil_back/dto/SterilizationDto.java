@@ -1,11 +1,13 @@
 package br.com.udesc.turma_do_gatil_back.dto;
 
+import br.com.udesc.turma_do_gatil_back.enums.ImageVariant;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -19,4 +21,11 @@ public class SterilizationDto {
     private LocalDateTime sterilizationDate;
     private SterilizationStatus status;
     private String notes;
+    // Variantes da foto do gato, como em CatDto
+    private Map<String, String> photoVariants;
+
+    public SterilizationDto(UUID id, UUID catId, String cat, String photoUrl, LocalDateTime sterilizationDate,
+                            SterilizationStatus status, String notes) {
+        this(id, catId, cat, photoUrl, sterilizationDate, status, notes, ImageVariant.urlsFor(photoUrl));
+    }
 }
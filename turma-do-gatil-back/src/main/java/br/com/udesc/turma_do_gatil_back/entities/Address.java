@@ -14,7 +14,7 @@ import org.hibernate.annotations.SQLRestriction;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE addresses SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE addresses SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
 public class Address extends BaseAuditableEntity {
 
@@ -1,10 +1,14 @@
 package br.com.udesc.turma_do_gatil_back.entities;
 
+import br.com.udesc.turma_do_gatil_back.config.DashboardCacheListener;
+import br.com.udesc.turma_do_gatil_back.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
@@ -17,8 +21,11 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE adopters SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE adopters SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
+@EntityListeners(DashboardCacheListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ADOPTERS_REGION)
 public class Adopter extends BaseAuditableEntity {
 
     @Column(name = "first_name", nullable = false)
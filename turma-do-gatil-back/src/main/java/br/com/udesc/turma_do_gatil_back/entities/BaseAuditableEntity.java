@@ -1,5 +1,6 @@
 package br.com.udesc.turma_do_gatil_back.entities;
 
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -44,7 +45,20 @@ public abstract class BaseAuditableEntity {
     @Column(name = "deleted_by")
     private String deletedBy;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public boolean isDeleted() {
         return deletedAt != null;
     }
+
+    /** Confere a versão enviada pelo cliente (If-Match); sem versão, a escrita vale sobre a atual */
+    public void checkVersion(Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new VersionConflictException(String.format(
+                    "%s %s was modified: expected version %d, current version %d",
+                    getClass().getSimpleName(), id, expectedVersion, version));
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package br.com.udesc.turma_do_gatil_back.entities;
 
+import br.com.udesc.turma_do_gatil_back.config.DashboardCacheListener;
+import br.com.udesc.turma_do_gatil_back.config.SecondLevelCacheConfig;
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.Color;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
@@ -8,6 +10,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
@@ -20,8 +24,11 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE cats SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE cats SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
+@EntityListeners(DashboardCacheListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.CATS_REGION)
 public class Cat extends BaseAuditableEntity {
 
     @Column(nullable = false, columnDefinition = "VARCHAR(255)")
@@ -48,6 +55,13 @@ public class Cat extends BaseAuditableEntity {
     @Column(name = "adoption_status", nullable = false)
     private CatAdoptionStatus adoptionStatus = CatAdoptionStatus.NAO_ADOTADO;
 
+    // Mantidos pelo banco via CatRepository.refreshSterilizationState
+    @Column(name = "sterilized_or_scheduled", nullable = false, insertable = false, updatable = false)
+    private boolean sterilizedOrScheduled;
+
+    @Column(name = "last_sterilization_date", insertable = false, updatable = false)
+    private LocalDateTime lastSterilizationDate;
+
     @OneToMany(mappedBy = "cat", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Note> notes;
 
@@ -0,0 +1,25 @@
+package br.com.udesc.turma_do_gatil_back.entities;
+
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "cat_status_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatStatusCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "adoption_status")
+    private CatAdoptionStatus adoptionStatus;
+
+    @Column(name = "cat_count", nullable = false)
+    private long catCount;
+}
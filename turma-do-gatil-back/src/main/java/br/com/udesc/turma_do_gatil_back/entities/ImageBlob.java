@@ -0,0 +1,43 @@
+package br.com.udesc.turma_do_gatil_back.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** Objeto de imagem no bucket, identificado pelo SHA-256 do conteúdo */
+@Entity
+@Table(name = "image_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    @Column(name = "object_key", nullable = false, unique = true)
+    private String objectKey;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    /** Referências em cats.photo_url e adoptions.adoption_term_photo na última coleta */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** Último upload que reaproveitou o objeto ou última coleta em que ele estava referenciado */
+    @Column(name = "last_referenced_at", nullable = false)
+    private LocalDateTime lastReferencedAt;
+}
@@ -17,7 +17,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE notes SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE notes SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
 public class Note extends BaseAuditableEntity {
 
@@ -1,5 +1,6 @@
 package br.com.udesc.turma_do_gatil_back.entities;
 
+import br.com.udesc.turma_do_gatil_back.config.DashboardCacheListener;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -18,8 +19,9 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE sterilizations SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE sterilizations SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
+@EntityListeners(DashboardCacheListener.class)
 public class Sterilization extends BaseAuditableEntity {
 
     @Column(name = "cat_id", nullable = false)
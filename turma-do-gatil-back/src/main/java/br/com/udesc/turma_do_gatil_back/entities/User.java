@@ -1,5 +1,6 @@
 package br.com.udesc.turma_do_gatil_back.entities;
 
+import br.com.udesc.turma_do_gatil_back.config.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,8 +20,9 @@ import java.util.Collections;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE users SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE users SET deleted_at = NOW() WHERE id = ? AND version = ?")
 @SQLRestriction("deleted_at IS NULL")
+@EntityListeners(UserChangeListener.class)
 public class User extends BaseAuditableEntity implements UserDetails {
 
     @Column(nullable = false, unique = true)
@@ -32,6 +34,10 @@ public class User extends BaseAuditableEntity implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    /** Incrementado para revogar todos os tokens já emitidos para o usuário */
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.emptyList();
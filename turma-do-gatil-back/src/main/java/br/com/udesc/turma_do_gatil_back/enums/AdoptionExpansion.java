@@ -0,0 +1,41 @@
+package br.com.udesc.turma_do_gatil_back.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Associações de uma adoção que podem vir junto na resposta ({@code ?expand=cat,adopter}).
+ * Cada uma vira um join na consulta da listagem; as que não forem pedidas ficam de fora do JSON.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AdoptionExpansion {
+    CAT("cat"),
+    // O endereço vem junto: é o lado inverso de um one-to-one e seria buscado com um SELECT por adotante
+    ADOPTER("adopter");
+
+    private final String value;
+
+    public static Set<AdoptionExpansion> parse(String expand) {
+        Set<AdoptionExpansion> expansions = EnumSet.noneOf(AdoptionExpansion.class);
+        if (expand == null || expand.isBlank()) {
+            return expansions;
+        }
+
+        for (String token : expand.split(",")) {
+            String trimmed = token.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            expansions.add(Arrays.stream(values())
+                    .filter(expansion -> expansion.value.equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown expand value: " + trimmed)));
+        }
+        return expansions;
+    }
+}
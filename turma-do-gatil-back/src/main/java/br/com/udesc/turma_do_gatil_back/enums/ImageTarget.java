@@ -0,0 +1,9 @@
+package br.com.udesc.turma_do_gatil_back.enums;
+
+/**
+ * Onde uma imagem enviada direto para o bucket é vinculada após a confirmação do upload.
+ */
+public enum ImageTarget {
+    CAT_PHOTO,
+    ADOPTION_TERM
+}
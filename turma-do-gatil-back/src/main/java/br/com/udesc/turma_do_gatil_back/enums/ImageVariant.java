@@ -0,0 +1,58 @@
+package br.com.udesc.turma_do_gatil_back.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versões redimensionadas geradas a partir de uma imagem enviada. Ficam ao lado do original no bucket:
+ * {@code images/<uuid>/original.png} gera {@code images/<uuid>/thumb.jpg}, {@code images/<uuid>/w320.jpg}...
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageVariant {
+    THUMB("thumb", 160, true),
+    W320("w320", 320, false),
+    W640("w640", 640, false),
+    W1280("w1280", 1280, false);
+
+    public static final String ORIGINAL_NAME = "original";
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    // Só originais gravados nesse formato têm variantes; vale tanto para a chave quanto para a URL pública
+    private static final Pattern ORIGINAL = Pattern.compile("(.*images/[0-9a-f-]{36})/" + ORIGINAL_NAME + "(\\.[A-Za-z0-9]{1,10})?");
+
+    private final String name;
+    private final int width;
+    // Miniatura quadrada, recortada no centro
+    private final boolean square;
+
+    /** Chave ou URL da variante, ou null se o original não tiver variantes */
+    public String locate(String original) {
+        Matcher matcher = original != null ? ORIGINAL.matcher(original) : null;
+        if (matcher == null || !matcher.matches()) {
+            return null;
+        }
+        return matcher.group(1) + "/" + name + ".jpg";
+    }
+
+    public static boolean hasVariants(String original) {
+        return original != null && ORIGINAL.matcher(original).matches();
+    }
+
+    /** URLs das variantes por nome, ou null para fotos enviadas antes das variantes ou hospedadas fora do bucket */
+    public static Map<String, String> urlsFor(String originalUrl) {
+        if (!hasVariants(originalUrl)) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : values()) {
+            urls.put(variant.name, variant.locate(originalUrl));
+        }
+        return urls;
+    }
+}
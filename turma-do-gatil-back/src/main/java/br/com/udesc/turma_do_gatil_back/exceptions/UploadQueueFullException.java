@@ -0,0 +1,12 @@
+package br.com.udesc.turma_do_gatil_back.exceptions;
+
+public class UploadQueueFullException extends RuntimeException {
+
+    public UploadQueueFullException(int queueCapacity) {
+        super("Fila de upload cheia (" + queueCapacity + " envios aguardando). Tente novamente em instantes");
+    }
+
+    public UploadQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.udesc.turma_do_gatil_back.exceptions;
+
+/** A versão informada pelo cliente (If-Match) não é mais a versão gravada: alguém alterou o registro antes */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,12 @@ package br.com.udesc.turma_do_gatil_back.mappers;
 
 import br.com.udesc.turma_do_gatil_back.dto.*;
 import br.com.udesc.turma_do_gatil_back.entities.*;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -120,11 +124,11 @@ public class EntityMapper {
         );
         dto.setAdoptionTermPhoto(adoption.getAdoptionTermPhoto());
 
-        // Evitar carregamento lazy se não necessário
-        if (adoption.getCat() != null) {
+        // Só associações já carregadas (fetch join do expand); tocar num proxy aqui seria um SELECT por linha
+        if (adoption.getCat() != null && Hibernate.isInitialized(adoption.getCat())) {
             dto.setCat(toCatDto(adoption.getCat()));
         }
-        if (adoption.getAdopter() != null) {
+        if (adoption.getAdopter() != null && Hibernate.isInitialized(adoption.getAdopter())) {
             dto.setAdopter(toAdopterDto(adoption.getAdopter()));
         }
 
@@ -210,4 +214,23 @@ public class EntityMapper {
             .collect(Collectors.toList());
         return new PageImpl<>(dtoList, entityPage.getPageable(), entityPage.getTotalElements());
     }
+
+    public static <T, D> Slice<D> toSlice(Slice<T> entitySlice, java.util.function.Function<T, D> mapper) {
+        List<D> dtoList = entitySlice.getContent().stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+        return new SliceImpl<>(dtoList, entitySlice.getPageable(), entitySlice.hasNext());
+    }
+
+    public static <T, D> CursorPageDto<D> toCursorPage(Slice<T> entitySlice, java.util.function.Function<T, D> mapper,
+                                                      java.util.function.Function<T, KeysetCursor> cursorOf) {
+        List<T> entities = entitySlice.getContent();
+        List<D> dtoList = entities.stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+        String nextCursor = entitySlice.hasNext() && !entities.isEmpty()
+            ? cursorOf.apply(entities.get(entities.size() - 1)).encode()
+            : null;
+        return new CursorPageDto<>(dtoList, entitySlice.getSize(), nextCursor, entitySlice.hasNext());
+    }
 }
@@ -0,0 +1,95 @@
+package br.com.udesc.turma_do_gatil_back.mappers;
+
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Escreve linhas de exportação (CSV ou NDJSON) diretamente no stream da resposta, uma por vez.
+ * As colunas são as mesmas nos dois formatos; no NDJSON viram as chaves de cada objeto.
+ */
+public final class ExportWriter<T> {
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Function<T, Object>> columns;
+    private final Writer writer;
+
+    public ExportWriter(ExportFormat format, ObjectMapper objectMapper,
+                        Map<String, Function<T, Object>> columns, OutputStream outputStream) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    public void writeHeader() {
+        if (format == ExportFormat.CSV) {
+            writeLine(String.join(",", columns.keySet()));
+        }
+    }
+
+    public void write(T row) {
+        if (format == ExportFormat.CSV) {
+            StringJoiner line = new StringJoiner(",");
+            columns.values().forEach(column -> line.add(csvValue(column.apply(row))));
+            writeLine(line.toString());
+        } else {
+            Map<String, Object> values = new LinkedHashMap<>();
+            columns.forEach((name, column) -> values.put(name, column.apply(row)));
+            try {
+                writeLine(objectMapper.writeValueAsString(values));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Texto livre que começa com um caractere de fórmula ganha um apóstrofo na frente, para que a
+     * planilha o mostre como texto em vez de executá-lo. Números, datas e enums saem como estão.
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof CharSequence && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,7 +1,14 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
 import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,7 +17,17 @@ import java.util.UUID;
 @Repository
 public interface AdopterRepository extends JpaRepository<Adopter, UUID>, AdopterRepositoryCustom {
 
+    // Endereço no mesmo SELECT da página, como nas consultas QueryDSL de AdopterRepositoryImpl
+    @Override
+    @EntityGraph(attributePaths = "address")
+    Page<Adopter> findAll(Pageable pageable);
+
     Optional<Adopter> findByCpf(String cpf);
 
     Optional<Adopter> findByEmail(String email);
+
+    /** Incrementa a versão no commit mesmo que nenhuma coluna de adopters mude */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT a FROM Adopter a WHERE a.id = :id")
+    Optional<Adopter> findByIdForVersionIncrement(@Param("id") UUID id);
 }
@@ -1,12 +1,20 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adopter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.function.Consumer;
 
 public interface AdopterRepositoryCustom {
     
-    Page<Adopter> findWithFilters(String name, String email, String cpf, Pageable pageable);
+    Page<AdopterDto> findWithFilters(String name, String email, String cpf, Pageable pageable);
+
+    Slice<AdopterDto> findSliceWithFilters(String name, String email, String cpf, Pageable pageable);
+
+    void forEachWithFilters(String name, String email, String cpf, Consumer<Adopter> action);
     
     Page<Adopter> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName, Pageable pageable);
     
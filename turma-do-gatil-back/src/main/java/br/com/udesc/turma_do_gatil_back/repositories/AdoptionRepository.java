@@ -7,5 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.UUID;
 
 @Repository
-public interface AdoptionRepository extends JpaRepository<Adoption, UUID>, AdoptionRepositoryCustom {
+public interface AdoptionRepository extends JpaRepository<Adoption, UUID>, AdoptionRepositoryCustom,
+        BulkWriteRepository<Adoption> {
 }
@@ -1,29 +1,57 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
 import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AdoptionRepositoryCustom {
     
-    Page<Adoption> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
-                                  String catName, String adopterName,
-                                  LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Page<AdoptionDto> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                      String catName, String adopterName,
+                                      LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                      Set<AdoptionExpansion> expand);
+
+    Slice<AdoptionDto> findSliceWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                            String catName, String adopterName,
+                                            LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                            Set<AdoptionExpansion> expand);
+
+    Slice<AdoptionDto> scrollWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                         String catName, String adopterName,
+                                         LocalDateTime startDate, LocalDateTime endDate,
+                                         LocalDateTime afterDate, UUID afterId, int size,
+                                         Set<AdoptionExpansion> expand);
+
+    void forEachWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                            String catName, String adopterName,
+                            LocalDateTime startDate, LocalDateTime endDate,
+                            Consumer<Adoption> action);
     
-    Page<Adoption> findByStatus(AdoptionStatus status, Pageable pageable);
+    Optional<Adoption> findExpandedById(UUID id, Set<AdoptionExpansion> expand);
     
-    Page<Adoption> findByCatId(UUID catId, Pageable pageable);
+    Page<AdoptionDto> findByStatus(AdoptionStatus status, Pageable pageable, Set<AdoptionExpansion> expand);
     
-    Page<Adoption> findByAdopterId(UUID adopterId, Pageable pageable);
+    Page<AdoptionDto> findByCatId(UUID catId, Pageable pageable, Set<AdoptionExpansion> expand);
+    
+    Page<AdoptionDto> findByAdopterId(UUID adopterId, Pageable pageable, Set<AdoptionExpansion> expand);
     
     Page<Adoption> findByAdoptionDateBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
     List<Adoption> findByCatIdAndStatus(UUID catId, AdoptionStatus status);
     
     boolean existsByCatIdAndStatus(UUID catId, AdoptionStatus status);
+
+    Map<AdoptionStatus, Long> countGroupedByStatus();
 }
@@ -0,0 +1,28 @@
+package br.com.udesc.turma_do_gatil_back.repositories;
+
+import br.com.udesc.turma_do_gatil_back.entities.BaseAuditableEntity;
+
+import java.util.List;
+
+/**
+ * Escrita em lote: as entidades são enviadas em batches JDBC e o contexto de persistência é
+ * esvaziado a cada batch, para que lotes grandes não acumulem todas as entidades em memória.
+ */
+public interface BulkWriteRepository<T extends BaseAuditableEntity> {
+
+    int MAX_BATCH_SIZE = 500;
+
+    static void validateBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+    }
+
+    List<T> persistAll(List<T> entities);
+
+    /**
+     * As entidades precisam existir; quem chama valida os ids antes. Entidades sem versão são gravadas
+     * sobre a versão atual; com versão, uma divergência falha o lote inteiro.
+     */
+    List<T> mergeAll(List<T> entities);
+}
@@ -1,11 +1,111 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface CatRepository extends JpaRepository<Cat, UUID>, CatRepositoryCustom {
+public interface CatRepository extends JpaRepository<Cat, UUID>, CatRepositoryCustom, BulkWriteRepository<Cat> {
+
+    /** Status de adoção atual de cada gato existente, como [id, status] */
+    @Query("SELECT c.id, c.adoptionStatus FROM Cat c WHERE c.id IN :ids")
+    List<Object[]> findAdoptionStatuses(@Param("ids") Collection<UUID> ids);
+
+
+    // Só grava (e muda a versão, que é o ETag do gato) quando o estado derivado muda de fato: editar apenas
+    // as observações de uma esterilização não invalida o ETag de quem está editando o gato. Retorna quantos
+    // gatos mudaram.
+    // O espaço não corresponde a nenhuma entidade, então o Hibernate não descarta nenhuma região do cache
+    // de segundo nível (com "cats" descartaria todos os gatos a cada esterilização). Quem chama remove do
+    // cache só os gatos informados, com evictFromSecondLevelCache
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cat_sterilization_state"))
+    @Query(value = """
+            UPDATE cats c
+            SET sterilized_or_scheduled = expected.sterilized_or_scheduled,
+                last_sterilization_date = expected.last_sterilization_date,
+                version = c.version + 1
+            FROM (
+                SELECT c2.id,
+                       EXISTS (SELECT 1 FROM sterilizations s
+                               WHERE s.cat_id = c2.id AND s.deleted_at IS NULL
+                                 AND s.status IN ('COMPLETED', 'SCHEDULED')) AS sterilized_or_scheduled,
+                       (SELECT MAX(s.sterilization_date) FROM sterilizations s
+                        WHERE s.cat_id = c2.id AND s.deleted_at IS NULL
+                          AND s.status IN ('COMPLETED', 'SCHEDULED')) AS last_sterilization_date
+                FROM cats c2
+                WHERE c2.id IN (:catIds)
+            ) expected
+            WHERE c.id = expected.id
+              AND (c.sterilized_or_scheduled, c.last_sterilization_date)
+                  IS DISTINCT FROM (expected.sterilized_or_scheduled, expected.last_sterilization_date)
+            """, nativeQuery = true)
+    int refreshSterilizationState(@Param("catIds") Collection<UUID> catIds);
+
+    /** Corrige divergências do estado desnormalizado; retorna quantos gatos estavam inconsistentes */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cats"))
+    @Query(value = """
+            UPDATE cats c
+            SET sterilized_or_scheduled = expected.sterilized_or_scheduled,
+                last_sterilization_date = expected.last_sterilization_date,
+                version = c.version + 1
+            FROM (
+                SELECT c2.id,
+                       EXISTS (SELECT 1 FROM sterilizations s
+                               WHERE s.cat_id = c2.id AND s.deleted_at IS NULL
+                                 AND s.status IN ('COMPLETED', 'SCHEDULED')) AS sterilized_or_scheduled,
+                       (SELECT MAX(s.sterilization_date) FROM sterilizations s
+                        WHERE s.cat_id = c2.id AND s.deleted_at IS NULL
+                          AND s.status IN ('COMPLETED', 'SCHEDULED')) AS last_sterilization_date
+                FROM cats c2
+            ) expected
+            WHERE c.id = expected.id
+              AND (c.sterilized_or_scheduled <> expected.sterilized_or_scheduled
+                   OR c.last_sterilization_date IS DISTINCT FROM expected.last_sterilization_date)
+            """, nativeQuery = true)
+    int reconcileSterilizationState();
+
+    /**
+     * Deriva o status de adoção dos gatos informados a partir das adoções, em uma agregação e um UPDATE.
+     * Retorna as transições aplicadas como [status anterior, novo status, quantidade de gatos].
+     */
+    @Query(value = """
+            WITH derived AS (
+                SELECT c.id,
+                       c.adoption_status AS previous_status,
+                       CASE
+                           WHEN bool_or(a.status = 'COMPLETED') THEN 'ADOTADO'
+                           WHEN bool_or(a.status = 'PENDING') THEN 'EM_PROCESSO'
+                           ELSE 'NAO_ADOTADO'
+                       END AS new_status
+                FROM cats c
+                LEFT JOIN adoptions a ON a.cat_id = c.id AND a.deleted_at IS NULL
+                WHERE c.id IN (:catIds) AND c.deleted_at IS NULL
+                GROUP BY c.id, c.adoption_status
+            ), changed AS (
+                UPDATE cats c
+                SET adoption_status = d.new_status,
+                    updated_at = CURRENT_TIMESTAMP,
+                    last_updated_by = :username,
+                    version = c.version + 1
+                FROM derived d
+                WHERE c.id = d.id AND d.previous_status <> d.new_status
+                RETURNING d.previous_status, d.new_status
+            )
+            SELECT previous_status, new_status, COUNT(*)
+            FROM changed
+            GROUP BY previous_status, new_status
+            """, nativeQuery = true)
+    List<Object[]> recomputeAdoptionStatus(@Param("catIds") Collection<UUID> catIds, @Param("username") String username);
 }
@@ -1,18 +1,31 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
+import br.com.udesc.turma_do_gatil_back.dto.CatDto;
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.Color;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface CatRepositoryCustom {
     
-    Page<Cat> findWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable);
+    Page<CatDto> findWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable);
     
+    Slice<CatDto> findSliceWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable);
+
+    Slice<CatDto> scrollWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus,
+                                    String afterName, UUID afterId, int size);
+    
+    void forEachWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus,
+                            Consumer<Cat> action);
+
     Page<Cat> findByAdoptionStatus(CatAdoptionStatus adoptionStatus, Pageable pageable);
     
     List<Cat> findByAdoptionStatusList(CatAdoptionStatus adoptionStatus);
@@ -23,8 +36,6 @@ public interface CatRepositoryCustom {
     
     Page<Cat> findByNameContainingIgnoreCase(String name, Pageable pageable);
     
-    long countByAdoptionStatus(CatAdoptionStatus adoptionStatus);
-    
     List<Cat> findCatsNeedingSterilization(int minimumAgeDays);
     
     Page<Cat> findCatsNeedingSterilization(int minimumAgeDays, Pageable pageable);
@@ -32,4 +43,11 @@ public interface CatRepositoryCustom {
     long countEligibleForSterilization(int minimumAgeDays, int overdueAgeDays);
     
     long countOverdueForSterilization(int overdueAgeDays);
+
+    /**
+     * Remove os gatos do cache de segundo nível, para escritas nativas que o Hibernate não rastreia.
+     * Dentro de uma transação, remove de novo após o commit para que uma leitura concorrente não
+     * guarde a linha anterior à escrita.
+     */
+    void evictFromSecondLevelCache(Collection<UUID> ids);
 }
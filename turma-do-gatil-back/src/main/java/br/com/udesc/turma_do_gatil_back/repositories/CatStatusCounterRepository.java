@@ -0,0 +1,57 @@
+package br.com.udesc.turma_do_gatil_back.repositories;
+
+import br.com.udesc.turma_do_gatil_back.entities.CatStatusCounter;
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatStatusCounterRepository extends JpaRepository<CatStatusCounter, CatAdoptionStatus> {
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cat_status_counters"))
+    @Query(value = """
+            INSERT INTO cat_status_counters (adoption_status, cat_count)
+            VALUES (:status, :delta)
+            ON CONFLICT (adoption_status)
+            DO UPDATE SET cat_count = cat_status_counters.cat_count + EXCLUDED.cat_count
+            """, nativeQuery = true)
+    int increment(@Param("status") String status, @Param("delta") long delta);
+
+    /**
+     * Bloqueia os contadores contra incrementos até o fim da transação. Precisa ser um comando separado,
+     * antes do {@link #reconcile()}: o snapshot do UPDATE só é tirado depois que o lock é obtido e já
+     * enxerga os incrementos de quem estava com a linha travada.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cat_status_counters"))
+    @Query(value = "LOCK TABLE cat_status_counters IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconcile();
+
+    /**
+     * Recalcula os contadores a partir de cats; retorna quantos status estavam divergentes.
+     * Chamar depois de {@link #lockForReconcile()} na mesma transação, senão um incremento concorrente
+     * pode ser sobrescrito pela contagem calculada antes dele.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cat_status_counters"))
+    @Query(value = """
+            UPDATE cat_status_counters counter
+            SET cat_count = actual.cat_count
+            FROM (
+                SELECT s.adoption_status, COUNT(c.id) AS cat_count
+                FROM cat_status_counters s
+                LEFT JOIN cats c ON c.adoption_status = s.adoption_status AND c.deleted_at IS NULL
+                GROUP BY s.adoption_status
+            ) actual
+            WHERE counter.adoption_status = actual.adoption_status
+              AND counter.cat_count <> actual.cat_count
+            """, nativeQuery = true)
+    int reconcile();
+}
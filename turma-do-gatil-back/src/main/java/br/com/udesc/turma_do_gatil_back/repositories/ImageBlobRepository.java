@@ -0,0 +1,82 @@
+package br.com.udesc.turma_do_gatil_back.repositories;
+
+import br.com.udesc.turma_do_gatil_back.entities.ImageBlob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    /** Uploads concorrentes do mesmo conteúdo: só o primeiro registro vale */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = """
+            INSERT INTO image_blobs (digest, object_key, content_type, size_bytes)
+            VALUES (:digest, :objectKey, :contentType, :sizeBytes)
+            ON CONFLICT (digest) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("digest") String digest,
+                       @Param("objectKey") String objectKey,
+                       @Param("contentType") String contentType,
+                       @Param("sizeBytes") long sizeBytes);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "UPDATE image_blobs SET last_referenced_at = NOW() WHERE digest = :digest", nativeQuery = true)
+    int touch(@Param("digest") String digest);
+
+    /**
+     * Recalcula as referências a partir das URLs gravadas em cats e adoptions (inclusive registros
+     * com soft delete, que ainda podem ser restaurados). Objetos referenciados renovam last_referenced_at.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = """
+            UPDATE image_blobs blob
+            SET ref_count = COALESCE(refs.ref_count, 0),
+                last_referenced_at = CASE WHEN refs.ref_count > 0 THEN NOW() ELSE blob.last_referenced_at END
+            FROM image_blobs current
+            LEFT JOIN (
+                SELECT object_key, COUNT(*) AS ref_count
+                FROM (
+                    SELECT substring(photo_url FROM 'images/[0-9a-f-]{36}.*$') AS object_key
+                    FROM cats
+                    WHERE photo_url IS NOT NULL
+                    UNION ALL
+                    SELECT substring(adoption_term_photo FROM 'images/[0-9a-f-]{36}.*$')
+                    FROM adoptions
+                    WHERE adoption_term_photo IS NOT NULL
+                ) referenced
+                WHERE object_key IS NOT NULL
+                GROUP BY object_key
+            ) refs ON refs.object_key = current.object_key
+            WHERE blob.digest = current.digest
+            """, nativeQuery = true)
+    int recountReferences();
+
+    @Query(value = """
+            SELECT * FROM image_blobs
+            WHERE ref_count = 0 AND last_referenced_at < :cutoff
+            ORDER BY last_referenced_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ImageBlob> findUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /** Só remove se o blob continuar sem referências: um upload pode tê-lo reaproveitado depois da busca */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = """
+            DELETE FROM image_blobs
+            WHERE digest = :digest AND ref_count = 0 AND last_referenced_at < :cutoff
+            """, nativeQuery = true)
+    int deleteIfUnreferenced(@Param("digest") String digest, @Param("cutoff") LocalDateTime cutoff);
+}
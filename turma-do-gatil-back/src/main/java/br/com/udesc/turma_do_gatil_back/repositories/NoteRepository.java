@@ -2,10 +2,17 @@ package br.com.udesc.turma_do_gatil_back.repositories;
 
 import br.com.udesc.turma_do_gatil_back.entities.Note;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, UUID>, NoteRepositoryCustom {
+public interface NoteRepository extends JpaRepository<Note, UUID>, NoteRepositoryCustom, BulkWriteRepository<Note> {
+
+    @Query("SELECT n.id FROM Note n WHERE n.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 }
@@ -1,17 +1,24 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
+import br.com.udesc.turma_do_gatil_back.dto.NoteDto;
 import br.com.udesc.turma_do_gatil_back.entities.Note;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface NoteRepositoryCustom {
     
-    Page<Note> findWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Page<NoteDto> findWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    Slice<NoteDto> findSliceWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    Slice<NoteDto> scrollWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate,
+                                     LocalDateTime afterDate, UUID afterId, int size);
     
-    Page<Note> findByCatId(UUID catId, Pageable pageable);
+    Page<NoteDto> findByCatId(UUID catId, Pageable pageable);
     
     Page<Note> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
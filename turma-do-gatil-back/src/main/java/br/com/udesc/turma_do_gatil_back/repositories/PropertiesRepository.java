@@ -2,8 +2,13 @@ package br.com.udesc.turma_do_gatil_back.repositories;
 
 import br.com.udesc.turma_do_gatil_back.entities.Properties;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PropertiesRepository extends JpaRepository<Properties, String> {
+
+    /** Soma das versões: muda a cada insert, update ou remoção de uma propriedade */
+    @Query("SELECT COALESCE(SUM(p.version + 1), 0) FROM Properties p")
+    long fingerprint();
 }
@@ -4,13 +4,22 @@ import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface SterilizationRepository extends JpaRepository<Sterilization, UUID>, SterilizationRepositoryCustom {
+public interface SterilizationRepository extends JpaRepository<Sterilization, UUID>, SterilizationRepositoryCustom,
+        BulkWriteRepository<Sterilization> {
+
+    /** Gato atual de cada esterilização existente, como [id, catId] */
+    @Query("SELECT s.id, s.catId FROM Sterilization s WHERE s.id IN :ids")
+    List<Object[]> findCatIds(@Param("ids") Collection<UUID> ids);
     
     @Override
     default Page<Sterilization> findAll(Pageable pageable) {
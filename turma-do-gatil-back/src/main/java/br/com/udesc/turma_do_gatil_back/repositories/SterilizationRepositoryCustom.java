@@ -1,11 +1,14 @@
 package br.com.udesc.turma_do_gatil_back.repositories;
 
+import br.com.udesc.turma_do_gatil_back.dto.SterilizationDto;
 import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,15 +24,24 @@ public interface SterilizationRepositoryCustom {
     
     Page<Sterilization> findBySterilizationDateBetweenWithCat(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
-    Page<Sterilization> findWithFilters(UUID catId, SterilizationStatus status, 
-                                       LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Page<SterilizationDto> findWithFilters(UUID catId, SterilizationStatus status,
+                                          LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    Slice<SterilizationDto> findSliceWithFilters(UUID catId, SterilizationStatus status,
+                                                 LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    Slice<SterilizationDto> scrollWithFilters(UUID catId, SterilizationStatus status,
+                                              LocalDateTime startDate, LocalDateTime endDate,
+                                              LocalDateTime afterDate, UUID afterId, int size);
 
     // Métodos que eram usados diretamente pelos services
-    Page<Sterilization> findByCatId(UUID catId, Pageable pageable);
+    Page<SterilizationDto> findByCatId(UUID catId, Pageable pageable);
     
-    Page<Sterilization> findByStatus(SterilizationStatus status, Pageable pageable);
+    Page<SterilizationDto> findByStatus(SterilizationStatus status, Pageable pageable);
     
     Page<Sterilization> findBySterilizationDateBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
     long countByStatus(SterilizationStatus status);
+
+    Map<SterilizationStatus, Long> countGroupedByStatus();
 }
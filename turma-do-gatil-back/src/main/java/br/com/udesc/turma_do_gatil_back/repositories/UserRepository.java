@@ -2,8 +2,10 @@ package br.com.udesc.turma_do_gatil_back.repositories;
 
 import br.com.udesc.turma_do_gatil_back.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +13,15 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    /**
+     * Usuários com tokens revogados: (id, versão mínima aceita). Consulta nativa para incluir
+     * os usuários removidos, que ficam com a versão máxima e não têm mais nenhum token aceito.
+     */
+    @Query(value = """
+            SELECT id, CASE WHEN deleted_at IS NULL THEN token_version ELSE 2147483647 END
+            FROM users
+            WHERE token_version > 0 OR deleted_at IS NOT NULL
+            """, nativeQuery = true)
+    List<Object[]> findTokenRevocations();
 }
@@ -1,20 +1,33 @@
 package br.com.udesc.turma_do_gatil_back.repositories.impl;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import br.com.udesc.turma_do_gatil_back.entities.QAddress;
 import br.com.udesc.turma_do_gatil_back.entities.QAdopter;
 import br.com.udesc.turma_do_gatil_back.repositories.AdopterRepositoryCustom;
+import br.com.udesc.turma_do_gatil_back.repositories.support.DtoProjections;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslPaging;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslStreaming;
+import br.com.udesc.turma_do_gatil_back.repositories.support.TextSearch;
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.StringExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class AdopterRepositoryImpl implements AdopterRepositoryCustom {
@@ -22,41 +35,124 @@ public class AdopterRepositoryImpl implements AdopterRepositoryCustom {
     @Autowired
     private JPAQueryFactory queryFactory;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final QAdopter qAdopter = QAdopter.adopter;
+    private final QAddress qAddress = QAddress.address;
+    private final ConstructorExpression<AdopterDto> adopterDto = DtoProjections.adopter(qAdopter, qAddress);
+
+    @Override
+    public Page<AdopterDto> findWithFilters(String name, String email, String cpf, Pageable pageable) {
+        JPAQuery<Adopter> query = filteredQuery(name, email, cpf, pageable.getSort());
+        return QueryDslPaging.fetchPage(query, adopterDto, pageable);
+    }
+
+    @Override
+    public Slice<AdopterDto> findSliceWithFilters(String name, String email, String cpf, Pageable pageable) {
+        JPAQuery<Adopter> query = filteredQuery(name, email, cpf, pageable.getSort());
+        return QueryDslPaging.fetchSlice(query, adopterDto, pageable);
+    }
 
     @Override
-    public Page<Adopter> findWithFilters(String name, String email, String cpf, Pageable pageable) {
+    public void forEachWithFilters(String name, String email, String cpf, Consumer<Adopter> action) {
+        JPAQuery<Adopter> query = withAddress()
+                .where(filterPredicate(name, email, cpf))
+                .orderBy(qAdopter.firstName.asc(), qAdopter.id.asc());
+
+        QueryDslStreaming.forEach(query, entityManager, action);
+    }
+
+    /**
+     * Consulta das listagens, projetada em AdopterDto: o endereço entra por um left join comum,
+     * já que não há entidade para receber um fetch join.
+     */
+    private JPAQuery<Adopter> filteredQuery(String name, String email, String cpf, Sort sort) {
+        JPAQuery<Adopter> query = queryFactory.selectFrom(qAdopter)
+                .leftJoin(qAdopter.address(), qAddress)
+                .where(filterPredicate(name, email, cpf));
+
+        if (StringUtils.hasText(name)) {
+            query.orderBy(TextSearch.relevance(fullName(), name).desc());
+        }
+
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sort);
+        if (orderSpecifiers.length > 0) {
+            query.orderBy(orderSpecifiers);
+        } else {
+            query.orderBy(qAdopter.firstName.asc());
+        }
+
+        return query;
+    }
+
+    private OrderSpecifier<?>[] getOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            boolean isAscending = order.isAscending();
+
+            switch (order.getProperty()) {
+                case "firstName":
+                    orders.add(isAscending ? qAdopter.firstName.asc() : qAdopter.firstName.desc());
+                    break;
+                case "lastName":
+                    orders.add(isAscending ? qAdopter.lastName.asc() : qAdopter.lastName.desc());
+                    break;
+                case "email":
+                    orders.add(isAscending ? qAdopter.email.asc() : qAdopter.email.desc());
+                    break;
+                case "cpf":
+                    orders.add(isAscending ? qAdopter.cpf.asc() : qAdopter.cpf.desc());
+                    break;
+                case "phone":
+                    orders.add(isAscending ? qAdopter.phone.asc() : qAdopter.phone.desc());
+                    break;
+                case "birthDate":
+                    orders.add(isAscending ? qAdopter.birthDate.asc() : qAdopter.birthDate.desc());
+                    break;
+                case "registrationDate":
+                    orders.add(isAscending ? qAdopter.registrationDate.asc() : qAdopter.registrationDate.desc());
+                    break;
+                default:
+                    orders.add(qAdopter.firstName.asc());
+                    break;
+            }
+        }
+
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    /**
+     * O endereço é o lado inverso de um one-to-one: sem o fetch join o Hibernate o busca com um SELECT
+     * por adotante assim que a página é carregada. Não multiplica linhas, então a paginação segue no banco.
+     */
+    private JPAQuery<Adopter> withAddress() {
+        return queryFactory.selectFrom(qAdopter)
+                .leftJoin(qAdopter.address()).fetchJoin();
+    }
+
+    private BooleanBuilder filterPredicate(String name, String email, String cpf) {
         BooleanBuilder predicate = new BooleanBuilder();
 
         if (StringUtils.hasText(name)) {
-            predicate.and(
-                    qAdopter.firstName.containsIgnoreCase(name)
-                            .or(qAdopter.lastName.containsIgnoreCase(name))
-                            .or(Expressions.stringTemplate("concat({0}, ' ', {1})",
-                                    qAdopter.firstName, qAdopter.lastName).containsIgnoreCase(name))
-            );
+            // Quem contém o termo no nome ou no sobrenome também o contém no nome completo
+            predicate.and(TextSearch.matches(fullName(), name));
         }
 
         if (StringUtils.hasText(email)) {
-            predicate.and(qAdopter.email.containsIgnoreCase(email));
+            predicate.and(TextSearch.matches(qAdopter.email, email));
         }
 
         if (StringUtils.hasText(cpf)) {
             predicate.and(qAdopter.cpf.contains(cpf));
         }
 
-        JPAQuery<Adopter> query = queryFactory.selectFrom(qAdopter)
-                .where(predicate)
-                .orderBy(qAdopter.firstName.asc());
-
-        long total = query.fetchCount();
-
-        List<Adopter> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        return predicate;
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    private StringExpression fullName() {
+        return TextSearch.fullName(qAdopter.firstName, qAdopter.lastName);
     }
 
     @Override
@@ -71,33 +167,19 @@ public class AdopterRepositoryImpl implements AdopterRepositoryCustom {
             predicate.and(qAdopter.lastName.containsIgnoreCase(lastName));
         }
 
-        JPAQuery<Adopter> query = queryFactory.selectFrom(qAdopter)
+        JPAQuery<Adopter> query = withAddress()
                 .where(predicate)
                 .orderBy(qAdopter.firstName.asc());
 
-        long total = query.fetchCount();
-
-        List<Adopter> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qAdopter, pageable);
     }
 
     @Override
     public Page<Adopter> findByEmailContainingIgnoreCase(String email, Pageable pageable) {
-        JPAQuery<Adopter> query = queryFactory.selectFrom(qAdopter)
-                .where(qAdopter.email.containsIgnoreCase(email))
-                .orderBy(qAdopter.email.asc());
-
-        long total = query.fetchCount();
-
-        List<Adopter> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        JPAQuery<Adopter> query = withAddress()
+                .where(TextSearch.matches(qAdopter.email, email))
+                .orderBy(TextSearch.relevance(qAdopter.email, email).desc(), qAdopter.email.asc());
 
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qAdopter, pageable);
     }
 }
@@ -1,24 +1,47 @@
 package br.com.udesc.turma_do_gatil_back.repositories.impl;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
+import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
+import br.com.udesc.turma_do_gatil_back.dto.CatDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.entities.QAddress;
 import br.com.udesc.turma_do_gatil_back.entities.QAdoption;
 import br.com.udesc.turma_do_gatil_back.entities.QAdopter;
 import br.com.udesc.turma_do_gatil_back.entities.QCat;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
 import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.repositories.AdoptionRepositoryCustom;
+import br.com.udesc.turma_do_gatil_back.repositories.support.DtoProjections;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslPaging;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslStreaming;
+import br.com.udesc.turma_do_gatil_back.repositories.support.TextSearch;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
@@ -26,14 +49,163 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
     @Autowired
     private JPAQueryFactory queryFactory;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final QAdoption qAdoption = QAdoption.adoption;
     private final QCat qCat = QCat.cat;
     private final QAdopter qAdopter = QAdopter.adopter;
+    // Aliases próprios para os joins não colidirem com qCat e qAdopter das subconsultas por nome
+    private final QCat joinedCat = new QCat("joinedCat");
+    private final QAdopter joinedAdopter = new QAdopter("joinedAdopter");
+    private final QAddress joinedAddress = new QAddress("joinedAddress");
+
+    @Override
+    public Page<AdoptionDto> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                             String catName, String adopterName,
+                                             LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                             Set<AdoptionExpansion> expand) {
+        JPAQuery<Adoption> query = filteredQuery(status, catId, adopterId, catName, adopterName, startDate, endDate,
+                pageable.getSort(), expand);
+        return QueryDslPaging.fetchPage(query, projection(expand), pageable);
+    }
+
+    @Override
+    public Slice<AdoptionDto> findSliceWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                                   String catName, String adopterName,
+                                                   LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                                   Set<AdoptionExpansion> expand) {
+        JPAQuery<Adoption> query = filteredQuery(status, catId, adopterId, catName, adopterName, startDate, endDate,
+                pageable.getSort(), expand);
+        return QueryDslPaging.fetchSlice(query, projection(expand), pageable);
+    }
+
+    private JPAQuery<Adoption> filteredQuery(AdoptionStatus status, UUID catId, UUID adopterId,
+                                             String catName, String adopterName,
+                                             LocalDateTime startDate, LocalDateTime endDate,
+                                             Sort sort, Set<AdoptionExpansion> expand) {
+        BooleanBuilder predicate = filterPredicate(status, catId, adopterId, catName, adopterName, startDate, endDate);
+
+        JPAQuery<Adoption> query = projectedQuery(expand)
+                .where(predicate);
+
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sort);
+        if (orderSpecifiers.length > 0) {
+            query.orderBy(orderSpecifiers);
+        } else {
+            query.orderBy(qAdoption.adoptionDate.desc());
+        }
+
+        return query;
+    }
+
+    private OrderSpecifier<?>[] getOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            boolean isAscending = order.isAscending();
+
+            switch (order.getProperty()) {
+                case "adoptionDate":
+                    orders.add(isAscending ? qAdoption.adoptionDate.asc() : qAdoption.adoptionDate.desc());
+                    break;
+                case "status":
+                    orders.add(isAscending ? qAdoption.status.asc() : qAdoption.status.desc());
+                    break;
+                default:
+                    orders.add(qAdoption.adoptionDate.desc());
+                    break;
+            }
+        }
+
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    @Override
+    public Slice<AdoptionDto> scrollWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                                String catName, String adopterName,
+                                                LocalDateTime startDate, LocalDateTime endDate,
+                                                LocalDateTime afterDate, UUID afterId, int size,
+                                                Set<AdoptionExpansion> expand) {
+        BooleanBuilder predicate = filterPredicate(status, catId, adopterId, catName, adopterName, startDate, endDate);
+
+        if (afterDate != null && afterId != null) {
+            predicate.and(qAdoption.adoptionDate.lt(afterDate)
+                    .or(qAdoption.adoptionDate.eq(afterDate).and(qAdoption.id.lt(afterId))));
+        }
+
+        JPAQuery<Adoption> query = projectedQuery(expand)
+                .where(predicate)
+                .orderBy(qAdoption.adoptionDate.desc(), qAdoption.id.desc());
+
+        return QueryDslPaging.fetchKeyset(query, projection(expand), size);
+    }
 
     @Override
-    public Page<Adoption> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
-                                          String catName, String adopterName,
-                                          LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    public void forEachWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                   String catName, String adopterName,
+                                   LocalDateTime startDate, LocalDateTime endDate,
+                                   Consumer<Adoption> action) {
+        // Gato, adotante e endereço vêm no mesmo SELECT
+        JPAQuery<Adoption> query = expandedQuery(EnumSet.allOf(AdoptionExpansion.class))
+                .where(filterPredicate(status, catId, adopterId, catName, adopterName, startDate, endDate))
+                .orderBy(qAdoption.adoptionDate.desc(), qAdoption.id.desc());
+
+        QueryDslStreaming.forEach(query, entityManager, action);
+    }
+
+    /**
+     * Consulta base com um fetch join por associação pedida. Todas são many-to-one ou one-to-one,
+     * então o número de linhas não muda e LIMIT/OFFSET continuam valendo no banco.
+     */
+    private JPAQuery<Adoption> expandedQuery(Set<AdoptionExpansion> expand) {
+        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption);
+
+        if (expand.contains(AdoptionExpansion.CAT)) {
+            query.join(qAdoption.cat()).fetchJoin();
+        }
+
+        if (expand.contains(AdoptionExpansion.ADOPTER)) {
+            query.join(qAdoption.adopter(), joinedAdopter).fetchJoin()
+                    .leftJoin(joinedAdopter.address()).fetchJoin();
+        }
+
+        return query;
+    }
+
+    /**
+     * Versão das listagens: joins comuns no lugar dos fetch joins, já que as linhas saem
+     * projetadas em AdoptionDto e nenhuma entidade é carregada.
+     */
+    private JPAQuery<Adoption> projectedQuery(Set<AdoptionExpansion> expand) {
+        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption);
+
+        if (expand.contains(AdoptionExpansion.CAT)) {
+            query.join(qAdoption.cat(), joinedCat);
+        }
+
+        if (expand.contains(AdoptionExpansion.ADOPTER)) {
+            query.join(qAdoption.adopter(), joinedAdopter)
+                    .leftJoin(joinedAdopter.address(), joinedAddress);
+        }
+
+        return query;
+    }
+
+    private ConstructorExpression<AdoptionDto> projection(Set<AdoptionExpansion> expand) {
+        Expression<CatDto> cat = expand.contains(AdoptionExpansion.CAT)
+                ? DtoProjections.cat(joinedCat)
+                : Expressions.nullExpression(CatDto.class);
+        Expression<AdopterDto> adopter = expand.contains(AdoptionExpansion.ADOPTER)
+                ? DtoProjections.adopter(joinedAdopter, joinedAddress)
+                : Expressions.nullExpression(AdopterDto.class);
+
+        return DtoProjections.adoption(qAdoption, cat, adopter);
+    }
+
+    private BooleanBuilder filterPredicate(AdoptionStatus status, UUID catId, UUID adopterId,
+                                           String catName, String adopterName,
+                                           LocalDateTime startDate, LocalDateTime endDate) {
         BooleanBuilder predicate = new BooleanBuilder();
 
         if (status != null) {
@@ -52,7 +224,7 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
             predicate.and(qAdoption.catId.in(
                 JPAExpressions.select(qCat.id)
                     .from(qCat)
-                    .where(qCat.name.containsIgnoreCase(catName))
+                    .where(TextSearch.matches(qCat.name, catName))
             ));
         }
 
@@ -60,8 +232,8 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
             predicate.and(qAdoption.adopterId.in(
                 JPAExpressions.select(qAdopter.id)
                     .from(qAdopter)
-                    .where(qAdopter.firstName.containsIgnoreCase(adopterName)
-                        .or(qAdopter.lastName.containsIgnoreCase(adopterName)))
+                    .where(TextSearch.matches(
+                        TextSearch.fullName(qAdopter.firstName, qAdopter.lastName), adopterName))
             ));
         }
 
@@ -73,66 +245,29 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
             predicate.and(qAdoption.adoptionDate.loe(endDate));
         }
 
-        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption)
-                .where(predicate)
-                .orderBy(qAdoption.adoptionDate.desc());
-
-        long total = query.fetchCount();
-
-        List<Adoption> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return predicate;
     }
 
     @Override
-    public Page<Adoption> findByStatus(AdoptionStatus status, Pageable pageable) {
-        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption)
-                .where(qAdoption.status.eq(status))
-                .orderBy(qAdoption.adoptionDate.desc());
-
-        long total = query.fetchCount();
-
-        List<Adoption> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+    public Optional<Adoption> findExpandedById(UUID id, Set<AdoptionExpansion> expand) {
+        return Optional.ofNullable(expandedQuery(expand)
+                .where(qAdoption.id.eq(id))
+                .fetchOne());
     }
 
     @Override
-    public Page<Adoption> findByCatId(UUID catId, Pageable pageable) {
-        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption)
-                .where(qAdoption.catId.eq(catId))
-                .orderBy(qAdoption.adoptionDate.desc());
-
-        long total = query.fetchCount();
-
-        List<Adoption> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+    public Page<AdoptionDto> findByStatus(AdoptionStatus status, Pageable pageable, Set<AdoptionExpansion> expand) {
+        return findWithFilters(status, null, null, null, null, null, null, pageable, expand);
     }
 
     @Override
-    public Page<Adoption> findByAdopterId(UUID adopterId, Pageable pageable) {
-        JPAQuery<Adoption> query = queryFactory.selectFrom(qAdoption)
-                .where(qAdoption.adopterId.eq(adopterId))
-                .orderBy(qAdoption.adoptionDate.desc());
-
-        long total = query.fetchCount();
-
-        List<Adoption> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+    public Page<AdoptionDto> findByCatId(UUID catId, Pageable pageable, Set<AdoptionExpansion> expand) {
+        return findWithFilters(null, catId, null, null, null, null, null, pageable, expand);
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    @Override
+    public Page<AdoptionDto> findByAdopterId(UUID adopterId, Pageable pageable, Set<AdoptionExpansion> expand) {
+        return findWithFilters(null, null, adopterId, null, null, null, null, pageable, expand);
     }
 
     @Override
@@ -141,14 +276,7 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
                 .where(qAdoption.adoptionDate.between(startDate, endDate))
                 .orderBy(qAdoption.adoptionDate.desc());
 
-        long total = query.fetchCount();
-
-        List<Adoption> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qAdoption, pageable);
     }
 
     @Override
@@ -170,4 +298,20 @@ public class AdoptionRepositoryImpl implements AdoptionRepositoryCustom {
         
         return result != null;
     }
+
+    @Override
+    public Map<AdoptionStatus, Long> countGroupedByStatus() {
+        Map<AdoptionStatus, Long> counts = new EnumMap<>(AdoptionStatus.class);
+        for (AdoptionStatus status : AdoptionStatus.values()) {
+            counts.put(status, 0L);
+        }
+
+        queryFactory.select(qAdoption.status, qAdoption.count())
+                .from(qAdoption)
+                .groupBy(qAdoption.status)
+                .fetch()
+                .forEach(row -> counts.put(row.get(qAdoption.status), row.get(qAdoption.count())));
+
+        return counts;
+    }
 }
@@ -0,0 +1,77 @@
+package br.com.udesc.turma_do_gatil_back.repositories.impl;
+
+import br.com.udesc.turma_do_gatil_back.entities.BaseAuditableEntity;
+import br.com.udesc.turma_do_gatil_back.repositories.BulkWriteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class BulkWriteRepositoryImpl<T extends BaseAuditableEntity> implements BulkWriteRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public List<T> persistAll(List<T> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+        return entities;
+    }
+
+    @Override
+    @Transactional
+    public List<T> mergeAll(List<T> entities) {
+        List<T> merged = new ArrayList<>(entities.size());
+        for (int start = 0; start < entities.size(); start += batchSize) {
+            List<T> chunk = entities.subList(start, Math.min(start + batchSize, entities.size()));
+
+            // Carrega o batch inteiro em uma consulta para que o merge não faça um SELECT por entidade
+            Map<UUID, Long> currentVersions = preload(chunk);
+            chunk.forEach(entity -> {
+                if (entity.getVersion() == null) {
+                    entity.setVersion(currentVersions.get(entity.getId()));
+                }
+                merged.add(entityManager.merge(entity));
+            });
+            flushAndClear();
+        }
+        return merged;
+    }
+
+    private Map<UUID, Long> preload(List<T> chunk) {
+        List<UUID> ids = chunk.stream().map(BaseAuditableEntity::getId).toList();
+
+        Map<UUID, Long> versions = new HashMap<>();
+        entityManager.unwrap(Session.class)
+                .byMultipleIds(chunk.get(0).getClass())
+                .multiLoad(ids)
+                .forEach(loaded -> {
+                    if (loaded != null) {
+                        versions.put(loaded.getId(), loaded.getVersion());
+                    }
+                });
+        return versions;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,29 +1,40 @@
 package br.com.udesc.turma_do_gatil_back.repositories.impl;
 
+import br.com.udesc.turma_do_gatil_back.dto.CatDto;
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
 import br.com.udesc.turma_do_gatil_back.entities.QCat;
-import br.com.udesc.turma_do_gatil_back.entities.QSterilization;
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.Color;
 import br.com.udesc.turma_do_gatil_back.enums.Sex;
-import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import br.com.udesc.turma_do_gatil_back.repositories.CatRepositoryCustom;
+import br.com.udesc.turma_do_gatil_back.repositories.support.DtoProjections;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslPaging;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslStreaming;
+import br.com.udesc.turma_do_gatil_back.repositories.support.TextSearch;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstructorExpression;
 import com.querydsl.core.types.OrderSpecifier;
-import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -32,14 +43,82 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
     @Autowired
     private JPAQueryFactory queryFactory;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final QCat qCat = QCat.cat;
+    private final ConstructorExpression<CatDto> catDto = DtoProjections.cat(qCat);
+
+    @Override
+    public Page<CatDto> findWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable) {
+        JPAQuery<Cat> query = filteredQuery(name, color, sex, adoptionStatus, pageable.getSort());
+        return QueryDslPaging.fetchPage(query, catDto, pageable);
+    }
+
+    @Override
+    public Slice<CatDto> findSliceWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable) {
+        JPAQuery<Cat> query = filteredQuery(name, color, sex, adoptionStatus, pageable.getSort());
+        return QueryDslPaging.fetchSlice(query, catDto, pageable);
+    }
+
+    private JPAQuery<Cat> filteredQuery(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Sort sort) {
+        BooleanBuilder predicate = filterPredicate(name, color, sex, adoptionStatus);
+
+        JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
+                .where(predicate);
+
+        orderByRelevance(query, name, sort);
+        return query;
+    }
+
+    /**
+     * Com termo de busca os resultados vêm primeiro pela relevância; a ordenação pedida desempata.
+     */
+    private void orderByRelevance(JPAQuery<Cat> query, String name, Sort sort) {
+        if (StringUtils.hasText(name)) {
+            query.orderBy(TextSearch.relevance(qCat.name, name).desc());
+        }
+
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sort);
+        if (orderSpecifiers.length > 0) {
+            query.orderBy(orderSpecifiers);
+        } else {
+            query.orderBy(qCat.name.asc());
+        }
+    }
+
+    @Override
+    public Slice<CatDto> scrollWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus,
+                                           String afterName, UUID afterId, int size) {
+        BooleanBuilder predicate = filterPredicate(name, color, sex, adoptionStatus);
+
+        if (afterName != null && afterId != null) {
+            predicate.and(qCat.name.gt(afterName)
+                    .or(qCat.name.eq(afterName).and(qCat.id.gt(afterId))));
+        }
+
+        JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
+                .where(predicate)
+                .orderBy(qCat.name.asc(), qCat.id.asc());
+
+        return QueryDslPaging.fetchKeyset(query, catDto, size);
+    }
 
     @Override
-    public Page<Cat> findWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus, Pageable pageable) {
+    public void forEachWithFilters(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus,
+                                   Consumer<Cat> action) {
+        JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
+                .where(filterPredicate(name, color, sex, adoptionStatus))
+                .orderBy(qCat.name.asc(), qCat.id.asc());
+
+        QueryDslStreaming.forEach(query, entityManager, action);
+    }
+
+    private BooleanBuilder filterPredicate(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus) {
         BooleanBuilder predicate = new BooleanBuilder();
 
         if (StringUtils.hasText(name)) {
-            predicate.and(qCat.name.containsIgnoreCase(name));
+            predicate.and(TextSearch.matches(qCat.name, name));
         }
 
         if (color != null) {
@@ -54,24 +133,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
             predicate.and(qCat.adoptionStatus.eq(adoptionStatus));
         }
 
-        JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
-                .where(predicate);
-
-        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(pageable.getSort());
-        if (orderSpecifiers.length > 0) {
-            query.orderBy(orderSpecifiers);
-        } else {
-            query.orderBy(qCat.name.asc());
-        }
-
-        long total = query.fetchCount();
-
-        List<Cat> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return predicate;
     }
 
     @Override
@@ -86,14 +148,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
             query.orderBy(qCat.name.asc());
         }
 
-        long total = query.fetchCount();
-
-        List<Cat> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qCat, pageable);
     }
 
     @Override
@@ -116,14 +171,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
             query.orderBy(qCat.name.asc());
         }
 
-        long total = query.fetchCount();
-
-        List<Cat> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qCat, pageable);
     }
 
     @Override
@@ -138,43 +186,17 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
             query.orderBy(qCat.name.asc());
         }
 
-        long total = query.fetchCount();
-
-        List<Cat> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qCat, pageable);
     }
 
     @Override
     public Page<Cat> findByNameContainingIgnoreCase(String name, Pageable pageable) {
         JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
-                .where(qCat.name.containsIgnoreCase(name));
-
-        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(pageable.getSort());
-        if (orderSpecifiers.length > 0) {
-            query.orderBy(orderSpecifiers);
-        } else {
-            query.orderBy(qCat.name.asc());
-        }
+                .where(TextSearch.matches(qCat.name, name));
 
-        long total = query.fetchCount();
+        orderByRelevance(query, name, pageable.getSort());
 
-        List<Cat> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
-    }
-
-    @Override
-    public long countByAdoptionStatus(CatAdoptionStatus adoptionStatus) {
-        return queryFactory.selectFrom(qCat)
-                .where(qCat.adoptionStatus.eq(adoptionStatus))
-                .fetchCount();
+        return QueryDslPaging.fetchPage(query, qCat, pageable);
     }
 
     /**
@@ -220,8 +242,6 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime maxBirthDate = now.minusDays(minimumAgeDays);
 
-        QSterilization subSterilization = new QSterilization("subSterilization");
-
         BooleanBuilder predicate = new BooleanBuilder();
 
         BooleanBuilder withBirthDate = new BooleanBuilder();
@@ -233,13 +253,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
 
         predicate.and(withBirthDate.or(withoutBirthDate));
 
-        predicate.andNot(
-            JPAExpressions.selectOne()
-                .from(subSterilization)
-                .where(subSterilization.catId.eq(qCat.id)
-                    .and(subSterilization.status.in(SterilizationStatus.COMPLETED, SterilizationStatus.SCHEDULED)))
-                .exists()
-        );
+        predicate.and(qCat.sterilizedOrScheduled.isFalse());
 
         return queryFactory.selectFrom(qCat)
             .where(predicate)
@@ -252,8 +266,6 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime maxBirthDate = now.minusDays(minimumAgeDays);
 
-        QSterilization subSterilization = new QSterilization("subSterilization");
-
         BooleanBuilder predicate = new BooleanBuilder();
 
         BooleanBuilder withBirthDate = new BooleanBuilder();
@@ -265,13 +277,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
 
         predicate.and(withBirthDate.or(withoutBirthDate));
 
-        predicate.andNot(
-            JPAExpressions.selectOne()
-                .from(subSterilization)
-                .where(subSterilization.catId.eq(qCat.id)
-                    .and(subSterilization.status.in(SterilizationStatus.COMPLETED, SterilizationStatus.SCHEDULED)))
-                .exists()
-        );
+        predicate.and(qCat.sterilizedOrScheduled.isFalse());
 
         JPAQuery<Cat> query = queryFactory.selectFrom(qCat)
             .where(predicate);
@@ -294,16 +300,7 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
             query.orderBy(qCat.name.asc());
         }
 
-        long total = queryFactory.selectFrom(qCat)
-            .where(predicate)
-            .fetchCount();
-
-        List<Cat> content = query
-            .offset(pageable.getOffset())
-            .limit(pageable.getPageSize())
-            .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qCat, pageable);
     }
 
     @Override
@@ -312,25 +309,19 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
         LocalDateTime maxBirthDateEligible = now.minusDays(overdueAgeDays);
         LocalDateTime minBirthDate = now.minusDays(minimumAgeDays);
 
-        QSterilization subSterilization = new QSterilization("subSterilization");
-
         BooleanBuilder predicate = new BooleanBuilder();
 
         predicate.and(qCat.birthDate.isNotNull());
         predicate.and(qCat.birthDate.loe(minBirthDate));
         predicate.and(qCat.birthDate.gt(maxBirthDateEligible));
 
-        predicate.andNot(
-            JPAExpressions.selectOne()
-                .from(subSterilization)
-                .where(subSterilization.catId.eq(qCat.id)
-                    .and(subSterilization.status.in(SterilizationStatus.COMPLETED, SterilizationStatus.SCHEDULED)))
-                .exists()
-        );
+        predicate.and(qCat.sterilizedOrScheduled.isFalse());
 
-        return queryFactory.selectFrom(qCat)
+        Long count = queryFactory.select(qCat.count())
+            .from(qCat)
             .where(predicate)
-            .fetchCount();
+            .fetchOne();
+        return count != null ? count : 0L;
     }
 
     @Override
@@ -338,8 +329,6 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime maxBirthDate = now.minusDays(overdueAgeDays);
 
-        QSterilization subSterilization = new QSterilization("subSterilization");
-
         BooleanBuilder predicate = new BooleanBuilder();
 
         BooleanBuilder withBirthDate = new BooleanBuilder();
@@ -351,16 +340,28 @@ public class CatRepositoryImpl implements CatRepositoryCustom {
 
         predicate.and(withBirthDate.or(withoutBirthDate));
 
-        predicate.andNot(
-            JPAExpressions.selectOne()
-                .from(subSterilization)
-                .where(subSterilization.catId.eq(qCat.id)
-                    .and(subSterilization.status.in(SterilizationStatus.COMPLETED, SterilizationStatus.SCHEDULED)))
-                .exists()
-        );
+        predicate.and(qCat.sterilizedOrScheduled.isFalse());
 
-        return queryFactory.selectFrom(qCat)
+        Long count = queryFactory.select(qCat.count())
+            .from(qCat)
             .where(predicate)
-            .fetchCount();
+            .fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public void evictFromSecondLevelCache(Collection<UUID> ids) {
+        List<UUID> evicted = List.copyOf(ids);
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        evicted.forEach(id -> cache.evict(Cat.class, id));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evicted.forEach(id -> cache.evict(Cat.class, id));
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
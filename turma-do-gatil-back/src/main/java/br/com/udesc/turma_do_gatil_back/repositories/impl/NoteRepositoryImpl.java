@@ -1,19 +1,27 @@
 package br.com.udesc.turma_do_gatil_back.repositories.impl;
 
+import br.com.udesc.turma_do_gatil_back.dto.NoteDto;
 import br.com.udesc.turma_do_gatil_back.entities.Note;
 import br.com.udesc.turma_do_gatil_back.entities.QNote;
 import br.com.udesc.turma_do_gatil_back.repositories.NoteRepositoryCustom;
+import br.com.udesc.turma_do_gatil_back.repositories.support.DtoProjections;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslPaging;
+import br.com.udesc.turma_do_gatil_back.repositories.support.TextSearch;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,9 +32,48 @@ public class NoteRepositoryImpl implements NoteRepositoryCustom {
     private JPAQueryFactory queryFactory;
 
     private final QNote qNote = QNote.note;
+    private final ConstructorExpression<NoteDto> noteDto = DtoProjections.note(qNote);
 
     @Override
-    public Page<Note> findWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    public Page<NoteDto> findWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        JPAQuery<Note> query = filteredQuery(catId, text, startDate, endDate, pageable.getSort());
+        return QueryDslPaging.fetchPage(query, noteDto, pageable);
+    }
+
+    @Override
+    public Slice<NoteDto> findSliceWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        JPAQuery<Note> query = filteredQuery(catId, text, startDate, endDate, pageable.getSort());
+        return QueryDslPaging.fetchSlice(query, noteDto, pageable);
+    }
+
+    private JPAQuery<Note> filteredQuery(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate, Sort sort) {
+        BooleanBuilder predicate = filterPredicate(catId, text, startDate, endDate);
+
+        JPAQuery<Note> query = queryFactory.selectFrom(qNote)
+                .where(predicate);
+
+        orderByRelevance(query, text, sort);
+        return query;
+    }
+
+    @Override
+    public Slice<NoteDto> scrollWithFilters(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate,
+                                            LocalDateTime afterDate, UUID afterId, int size) {
+        BooleanBuilder predicate = filterPredicate(catId, text, startDate, endDate);
+
+        if (afterDate != null && afterId != null) {
+            predicate.and(qNote.date.lt(afterDate)
+                    .or(qNote.date.eq(afterDate).and(qNote.id.lt(afterId))));
+        }
+
+        JPAQuery<Note> query = queryFactory.selectFrom(qNote)
+                .where(predicate)
+                .orderBy(qNote.date.desc(), qNote.id.desc());
+
+        return QueryDslPaging.fetchKeyset(query, noteDto, size);
+    }
+
+    private BooleanBuilder filterPredicate(UUID catId, String text, LocalDateTime startDate, LocalDateTime endDate) {
         BooleanBuilder predicate = new BooleanBuilder();
 
         if (catId != null) {
@@ -34,7 +81,7 @@ public class NoteRepositoryImpl implements NoteRepositoryCustom {
         }
 
         if (StringUtils.hasText(text)) {
-            predicate.and(qNote.text.containsIgnoreCase(text));
+            predicate.and(TextSearch.matches(qNote.text, text));
         }
 
         if (startDate != null) {
@@ -45,34 +92,51 @@ public class NoteRepositoryImpl implements NoteRepositoryCustom {
             predicate.and(qNote.date.loe(endDate));
         }
 
-        JPAQuery<Note> query = queryFactory.selectFrom(qNote)
-                .where(predicate)
-                .orderBy(qNote.date.desc());
+        return predicate;
+    }
 
-        long total = query.fetchCount();
+    private void orderByRelevance(JPAQuery<Note> query, String text, Sort sort) {
+        if (StringUtils.hasText(text)) {
+            query.orderBy(TextSearch.relevance(qNote.text, text).desc());
+        }
 
-        List<Note> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sort);
+        if (orderSpecifiers.length > 0) {
+            query.orderBy(orderSpecifiers);
+        } else {
+            query.orderBy(qNote.date.desc());
+        }
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    private OrderSpecifier<?>[] getOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            boolean isAscending = order.isAscending();
+
+            switch (order.getProperty()) {
+                case "date":
+                    orders.add(isAscending ? qNote.date.asc() : qNote.date.desc());
+                    break;
+                case "text":
+                    orders.add(isAscending ? qNote.text.asc() : qNote.text.desc());
+                    break;
+                default:
+                    orders.add(qNote.date.desc());
+                    break;
+            }
+        }
+
+        return orders.toArray(new OrderSpecifier<?>[0]);
     }
 
     @Override
-    public Page<Note> findByCatId(UUID catId, Pageable pageable) {
+    public Page<NoteDto> findByCatId(UUID catId, Pageable pageable) {
         JPAQuery<Note> query = queryFactory.selectFrom(qNote)
                 .where(qNote.catId.eq(catId))
                 .orderBy(qNote.date.desc());
 
-        long total = query.fetchCount();
-
-        List<Note> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, noteDto, pageable);
     }
 
     @Override
@@ -81,29 +145,16 @@ public class NoteRepositoryImpl implements NoteRepositoryCustom {
                 .where(qNote.date.between(startDate, endDate))
                 .orderBy(qNote.date.desc());
 
-        long total = query.fetchCount();
-
-        List<Note> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qNote, pageable);
     }
 
     @Override
     public Page<Note> findByTextContainingIgnoreCase(String text, Pageable pageable) {
         JPAQuery<Note> query = queryFactory.selectFrom(qNote)
-                .where(qNote.text.containsIgnoreCase(text))
-                .orderBy(qNote.date.desc());
-
-        long total = query.fetchCount();
+                .where(TextSearch.matches(qNote.text, text));
 
-        List<Note> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        orderByRelevance(query, text, Sort.unsorted());
 
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qNote, pageable);
     }
 }
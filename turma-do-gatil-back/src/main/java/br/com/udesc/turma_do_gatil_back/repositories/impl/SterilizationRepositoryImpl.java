@@ -1,21 +1,30 @@
 package br.com.udesc.turma_do_gatil_back.repositories.impl;
 
+import br.com.udesc.turma_do_gatil_back.dto.SterilizationDto;
 import br.com.udesc.turma_do_gatil_back.entities.QCat;
 import br.com.udesc.turma_do_gatil_back.entities.QSterilization;
 import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import br.com.udesc.turma_do_gatil_back.repositories.SterilizationRepositoryCustom;
+import br.com.udesc.turma_do_gatil_back.repositories.support.DtoProjections;
+import br.com.udesc.turma_do_gatil_back.repositories.support.QueryDslPaging;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -27,6 +36,7 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
 
     private final QSterilization qSterilization = QSterilization.sterilization;
     private final QCat qCat = QCat.cat;
+    private final ConstructorExpression<SterilizationDto> sterilizationDto = DtoProjections.sterilization(qSterilization, qCat);
 
     @Override
     public Page<Sterilization> findAllWithCat(Pageable pageable) {
@@ -34,14 +44,7 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
                 .join(qSterilization.cat(), qCat).fetchJoin()
                 .orderBy(qSterilization.sterilizationDate.desc());
 
-        long total = query.fetchCount();
-
-        List<Sterilization> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qSterilization, pageable);
     }
 
     @Override
@@ -61,14 +64,7 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
                 .where(qSterilization.catId.eq(catId))
                 .orderBy(qSterilization.sterilizationDate.desc());
 
-        long total = query.fetchCount();
-
-        List<Sterilization> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qSterilization, pageable);
     }
 
     @Override
@@ -78,14 +74,7 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
                 .where(qSterilization.status.eq(status))
                 .orderBy(qSterilization.sterilizationDate.desc());
 
-        long total = query.fetchCount();
-
-        List<Sterilization> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return QueryDslPaging.fetchPage(query, qSterilization, pageable);
     }
 
     @Override
@@ -95,19 +84,91 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
                 .where(qSterilization.sterilizationDate.between(startDate, endDate))
                 .orderBy(qSterilization.sterilizationDate.desc());
 
-        long total = query.fetchCount();
+        return QueryDslPaging.fetchPage(query, qSterilization, pageable);
+    }
+
+    @Override
+    public Page<SterilizationDto> findWithFilters(UUID catId, SterilizationStatus status,
+                                                  LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        JPAQuery<Sterilization> query = filteredQuery(catId, status, startDate, endDate, pageable.getSort());
+        return QueryDslPaging.fetchPage(query, sterilizationDto, pageable);
+    }
+
+    @Override
+    public Slice<SterilizationDto> findSliceWithFilters(UUID catId, SterilizationStatus status,
+                                                        LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        JPAQuery<Sterilization> query = filteredQuery(catId, status, startDate, endDate, pageable.getSort());
+        return QueryDslPaging.fetchSlice(query, sterilizationDto, pageable);
+    }
+
+    /**
+     * Consulta das listagens, projetada em SterilizationDto: do gato só interessam nome e foto,
+     * então o join é comum e o Cat não é materializado.
+     */
+    private JPAQuery<Sterilization> filteredQuery(UUID catId, SterilizationStatus status,
+                                                  LocalDateTime startDate, LocalDateTime endDate, Sort sort) {
+        BooleanBuilder predicate = filterPredicate(catId, status, startDate, endDate);
+
+        JPAQuery<Sterilization> query = queryFactory.selectFrom(qSterilization)
+                .join(qSterilization.cat(), qCat)
+                .where(predicate);
+
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sort);
+        if (orderSpecifiers.length > 0) {
+            query.orderBy(orderSpecifiers);
+        } else {
+            query.orderBy(qSterilization.sterilizationDate.desc());
+        }
 
-        List<Sterilization> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        return query;
+    }
+
+    private OrderSpecifier<?>[] getOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            boolean isAscending = order.isAscending();
+
+            switch (order.getProperty()) {
+                case "sterilizationDate":
+                    orders.add(isAscending ? qSterilization.sterilizationDate.asc() : qSterilization.sterilizationDate.desc());
+                    break;
+                case "status":
+                    orders.add(isAscending ? qSterilization.status.asc() : qSterilization.status.desc());
+                    break;
+                case "cat":
+                    orders.add(isAscending ? qCat.name.asc() : qCat.name.desc());
+                    break;
+                default:
+                    orders.add(qSterilization.sterilizationDate.desc());
+                    break;
+            }
+        }
 
-        return new PageImpl<>(content, pageable, total);
+        return orders.toArray(new OrderSpecifier<?>[0]);
     }
 
     @Override
-    public Page<Sterilization> findWithFilters(UUID catId, SterilizationStatus status,
-                                               LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    public Slice<SterilizationDto> scrollWithFilters(UUID catId, SterilizationStatus status,
+                                                     LocalDateTime startDate, LocalDateTime endDate,
+                                                     LocalDateTime afterDate, UUID afterId, int size) {
+        BooleanBuilder predicate = filterPredicate(catId, status, startDate, endDate);
+
+        if (afterDate != null && afterId != null) {
+            predicate.and(qSterilization.sterilizationDate.lt(afterDate)
+                    .or(qSterilization.sterilizationDate.eq(afterDate).and(qSterilization.id.lt(afterId))));
+        }
+
+        JPAQuery<Sterilization> query = queryFactory.selectFrom(qSterilization)
+                .join(qSterilization.cat(), qCat)
+                .where(predicate)
+                .orderBy(qSterilization.sterilizationDate.desc(), qSterilization.id.desc());
+
+        return QueryDslPaging.fetchKeyset(query, sterilizationDto, size);
+    }
+
+    private BooleanBuilder filterPredicate(UUID catId, SterilizationStatus status,
+                                           LocalDateTime startDate, LocalDateTime endDate) {
         BooleanBuilder predicate = new BooleanBuilder();
 
         if (catId != null) {
@@ -126,29 +187,17 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
             predicate.and(qSterilization.sterilizationDate.loe(endDate));
         }
 
-        JPAQuery<Sterilization> query = queryFactory.selectFrom(qSterilization)
-                .join(qSterilization.cat(), qCat).fetchJoin()
-                .where(predicate)
-                .orderBy(qSterilization.sterilizationDate.desc());
-
-        long total = query.fetchCount();
-
-        List<Sterilization> content = query
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        return new PageImpl<>(content, pageable, total);
+        return predicate;
     }
 
     @Override
-    public Page<Sterilization> findByCatId(UUID catId, Pageable pageable) {
-        return findByCatIdWithCat(catId, pageable);
+    public Page<SterilizationDto> findByCatId(UUID catId, Pageable pageable) {
+        return findWithFilters(catId, null, null, null, pageable);
     }
 
     @Override
-    public Page<Sterilization> findByStatus(SterilizationStatus status, Pageable pageable) {
-        return findByStatusWithCat(status, pageable);
+    public Page<SterilizationDto> findByStatus(SterilizationStatus status, Pageable pageable) {
+        return findWithFilters(null, status, null, null, pageable);
     }
 
     @Override
@@ -162,4 +211,20 @@ public class SterilizationRepositoryImpl implements SterilizationRepositoryCusto
                 .where(qSterilization.status.eq(status))
                 .fetchCount();
     }
+
+    @Override
+    public Map<SterilizationStatus, Long> countGroupedByStatus() {
+        Map<SterilizationStatus, Long> counts = new EnumMap<>(SterilizationStatus.class);
+        for (SterilizationStatus status : SterilizationStatus.values()) {
+            counts.put(status, 0L);
+        }
+
+        queryFactory.select(qSterilization.status, qSterilization.count())
+                .from(qSterilization)
+                .groupBy(qSterilization.status)
+                .fetch()
+                .forEach(row -> counts.put(row.get(qSterilization.status), row.get(qSterilization.count())));
+
+        return counts;
+    }
 }
@@ -0,0 +1,65 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import br.com.udesc.turma_do_gatil_back.dto.AddressDto;
+import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
+import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
+import br.com.udesc.turma_do_gatil_back.dto.CatDto;
+import br.com.udesc.turma_do_gatil_back.dto.NoteDto;
+import br.com.udesc.turma_do_gatil_back.dto.SterilizationDto;
+import br.com.udesc.turma_do_gatil_back.entities.QAddress;
+import br.com.udesc.turma_do_gatil_back.entities.QAdopter;
+import br.com.udesc.turma_do_gatil_back.entities.QAdoption;
+import br.com.udesc.turma_do_gatil_back.entities.QCat;
+import br.com.udesc.turma_do_gatil_back.entities.QNote;
+import br.com.udesc.turma_do_gatil_back.entities.QSterilization;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
+
+/**
+ * Projeções das listagens direto nos DTOs da API. As linhas não viram entidades gerenciadas:
+ * não há snapshot para o dirty checking nem cópia posterior pelo EntityMapper.
+ */
+public final class DtoProjections {
+
+    private DtoProjections() {
+    }
+
+    public static ConstructorExpression<CatDto> cat(QCat cat) {
+        return Projections.constructor(CatDto.class,
+                cat.id, cat.name, cat.color, cat.sex, cat.birthDate,
+                cat.shelterEntryDate, cat.photoUrl, cat.adoptionStatus);
+    }
+
+    public static ConstructorExpression<AdopterDto> adopter(QAdopter adopter, QAddress address) {
+        // Sem endereço o left join traz só nulos; skipNulls devolve null em vez de um AddressDto vazio
+        Expression<AddressDto> addressDto = Projections.constructor(AddressDto.class,
+                address.id, address.street, address.neighborhood, address.city,
+                address.state, address.number, address.zipCode, address.complement).skipNulls();
+
+        return Projections.constructor(AdopterDto.class,
+                adopter.id, adopter.firstName, adopter.lastName, adopter.birthDate, adopter.cpf,
+                adopter.phone, adopter.email, adopter.instagram, addressDto, adopter.registrationDate);
+    }
+
+    /**
+     * Gato e adotante só entram na projeção quando pedidos no expand; os demais chegam como null.
+     */
+    public static ConstructorExpression<AdoptionDto> adoption(QAdoption adoption,
+                                                              Expression<CatDto> cat,
+                                                              Expression<AdopterDto> adopter) {
+        return Projections.constructor(AdoptionDto.class,
+                adoption.id, adoption.catId, adoption.adopterId, adoption.adoptionDate,
+                adoption.status, adoption.adoptionTermPhoto, cat, adopter);
+    }
+
+    public static ConstructorExpression<NoteDto> note(QNote note) {
+        return Projections.constructor(NoteDto.class, note.id, note.catId, note.date, note.text);
+    }
+
+    public static ConstructorExpression<SterilizationDto> sterilization(QSterilization sterilization, QCat cat) {
+        return Projections.constructor(SterilizationDto.class,
+                sterilization.id, sterilization.catId, cat.name, cat.photoUrl,
+                sterilization.sterilizationDate, sterilization.status, sterilization.notes);
+    }
+}
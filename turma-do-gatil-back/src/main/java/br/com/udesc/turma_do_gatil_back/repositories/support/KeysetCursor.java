@@ -0,0 +1,66 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco da paginação por keyset: última chave de ordenação + id do último registro da página.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class KeysetCursor {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private final String key;
+    private final UUID id;
+
+    public static KeysetCursor of(Object key, UUID id) {
+        return new KeysetCursor(String.valueOf(key), id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(decoded.substring(0, separatorIndex),
+                    UUID.fromString(decoded.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public static void validateSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    public String encode() {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime keyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * Paginação das consultas QueryDSL em uma única ida ao banco.
+ * O total vem junto com as linhas da página através de {@code count(*) over()}.
+ */
+public final class QueryDslPaging {
+
+    private static final NumberExpression<Long> TOTAL_OVER = Expressions.numberTemplate(Long.class, "count(*) over()");
+
+    private QueryDslPaging() {
+    }
+
+    public static <T> Page<T> fetchPage(JPAQuery<?> query, Expression<T> projection, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<T> content = query.select(projection).fetch();
+            return new PageImpl<>(content, pageable, content.size());
+        }
+
+        JPAQuery<?> fallbackQuery = query.clone();
+
+        List<Tuple> rows = query.select(projection, TOTAL_OVER)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        if (!rows.isEmpty()) {
+            List<T> content = rows.stream().map(row -> row.get(projection)).toList();
+            return new PageImpl<>(content, pageable, rows.get(0).get(TOTAL_OVER));
+        }
+
+        if (pageable.getOffset() == 0) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        // Página além do fim do resultado: o total precisa ser buscado a partir do início
+        Tuple first = fallbackQuery.select(projection, TOTAL_OVER)
+                .limit(1)
+                .fetchFirst();
+        long total = first != null ? first.get(TOTAL_OVER) : 0L;
+        return new PageImpl<>(List.of(), pageable, total);
+    }
+
+    public static <T> Slice<T> fetchSlice(JPAQuery<?> query, Expression<T> projection, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.select(projection).fetch(), pageable, false);
+        }
+
+        List<T> content = query.select(projection)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        List<T> pageContent = hasNext ? content.subList(0, pageable.getPageSize()) : content;
+        return new SliceImpl<>(pageContent, pageable, hasNext);
+    }
+
+    /**
+     * Página por keyset: o filtro do cursor já vem no predicado, então não há OFFSET.
+     */
+    public static <T> Slice<T> fetchKeyset(JPAQuery<?> query, Expression<T> projection, int size) {
+        List<T> content = query.select(projection)
+                .limit(size + 1L)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        List<T> pageContent = hasNext ? content.subList(0, size) : content;
+        return new SliceImpl<>(pageContent, PageRequest.ofSize(size), hasNext);
+    }
+}
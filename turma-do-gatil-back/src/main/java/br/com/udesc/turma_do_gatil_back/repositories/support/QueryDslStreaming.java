@@ -0,0 +1,39 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Leitura de consultas QueryDSL por cursor JDBC (forward-only), linha a linha.
+ * O contexto de persistência é esvaziado a cada lote lido, então o consumo de memória
+ * não depende do tamanho do resultado. As linhas lidas não entram no cache de segundo nível,
+ * para que uma exportação não desloque as entidades mais acessadas. Precisa rodar dentro de uma transação.
+ */
+public final class QueryDslStreaming {
+
+    public static final int FETCH_SIZE = 500;
+
+    private QueryDslStreaming() {
+    }
+
+    public static <T> void forEach(JPAQuery<T> query, EntityManager entityManager, Consumer<? super T> action) {
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE);
+
+        long rowCount = 0;
+        try (Stream<T> rows = query.stream()) {
+            for (T row : (Iterable<T>) rows::iterator) {
+                action.accept(row);
+                if (++rowCount % FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
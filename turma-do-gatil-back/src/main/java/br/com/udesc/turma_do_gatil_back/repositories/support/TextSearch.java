@@ -0,0 +1,31 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+/**
+ * Busca textual servida pelos índices trigram (pg_trgm) da V17.
+ * O filtro continua sendo {@code lower(coluna) like '%termo%'}, mesma expressão dos índices,
+ * e a relevância usa {@code word_similarity} para ordenar os resultados.
+ */
+public final class TextSearch {
+
+    private TextSearch() {
+    }
+
+    public static BooleanExpression matches(StringExpression field, String term) {
+        return field.containsIgnoreCase(term);
+    }
+
+    public static NumberExpression<Double> relevance(StringExpression field, String term) {
+        return Expressions.numberTemplate(Double.class, "function('word_similarity', {0}, lower({1}))",
+                Expressions.constant(term.toLowerCase()), field);
+    }
+
+    /** Mesma expressão do índice idx_adopters_full_name_trgm: o separador precisa ser literal, não parâmetro */
+    public static StringExpression fullName(StringExpression firstName, StringExpression lastName) {
+        return Expressions.stringTemplate("concat({0}, ' ', {1})", firstName, lastName);
+    }
+}
@@ -1,5 +1,7 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdopterDto;
+import br.com.udesc.turma_do_gatil_back.entities.Address;
 import br.com.udesc.turma_do_gatil_back.entities.Adopter;
 import br.com.udesc.turma_do_gatil_back.exceptions.AdopterNotFoundException;
 import br.com.udesc.turma_do_gatil_back.exceptions.CpfAlreadyExistsException;
@@ -9,12 +11,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -22,8 +27,8 @@ import java.util.UUID;
 public class AdopterService {
 
     private final AdopterRepository adopterRepository;
-    private final SecurityService securityService;
 
+    @Transactional(readOnly = true)
     public Page<Adopter> findAll(Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
@@ -36,6 +41,7 @@ public class AdopterService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Adopter> findById(UUID id) {
         Objects.requireNonNull(id, "Adopter ID cannot be null");
 
@@ -52,6 +58,7 @@ public class AdopterService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Adopter> findByCpf(String cpf) {
         Objects.requireNonNull(cpf, "CPF cannot be null");
 
@@ -68,6 +75,7 @@ public class AdopterService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Adopter> findByEmail(String email) {
         Objects.requireNonNull(email, "Email cannot be null");
 
@@ -101,6 +109,7 @@ public class AdopterService {
         return savedAdopter;
     }
 
+    @Transactional
     public Adopter update(UUID id, Adopter adopter) {
         Objects.requireNonNull(id, "Adopter ID cannot be null");
         Objects.requireNonNull(adopter, "Adopter cannot be null");
@@ -109,31 +118,51 @@ public class AdopterService {
 
         log.info("Updating adopter with id: {}", id);
 
-        validateAdopterExists(id);
-        validateCpfNotExistsForOtherAdopter(adopter.getCpf(), id);
-        validateEmailNotExistsForOtherAdopter(adopter.getEmail(), id);
+        Adopter current = adopterRepository.findById(id)
+                .orElseThrow(() -> {
+                    String message = String.format("Adopter not found with id: %s", id);
+                    log.warn(message);
+                    return new AdopterNotFoundException(message);
+                });
+        current.checkVersion(adopter.getVersion());
+        // CPF e email inalterados não precisam da consulta de unicidade
+        if (!adopter.getCpf().equals(current.getCpf())) {
+            validateCpfNotExistsForOtherAdopter(adopter.getCpf(), id);
+        }
+        if (!adopter.getEmail().equals(current.getEmail())) {
+            validateEmailNotExistsForOtherAdopter(adopter.getEmail(), id);
+        }
+
+        // O endereço fica em outra tabela: alterá-lo sozinho não mudaria a versão (ETag) do adotante
+        if (addressChanged(current.getAddress(), adopter.getAddress())) {
+            adopterRepository.findByIdForVersionIncrement(id);
+        }
+        matchAddressVersion(current.getAddress(), adopter.getAddress());
 
         adopter.setId(id);
+        adopter.setVersion(current.getVersion());
         Adopter updatedAdopter = adopterRepository.save(adopter);
 
         log.info("Successfully updated adopter with id: {}", id);
         return updatedAdopter;
     }
 
-    public void deleteById(UUID id) {
+    @Transactional
+    public void deleteById(UUID id, Long expectedVersion) {
         Objects.requireNonNull(id, "Adopter ID cannot be null");
 
         log.info("Deleting adopter with id: {}", id);
 
         Adopter adopter = adopterRepository.findById(id)
                 .orElseThrow(() -> new AdopterNotFoundException("Adopter not found with id: " + id));
+        adopter.checkVersion(expectedVersion);
 
-        adopter.setDeletedBy(securityService.getCurrentUsername());
         adopterRepository.delete(adopter);
 
         log.info("Successfully soft deleted adopter with id: {}", id);
     }
 
+    @Transactional(readOnly = true)
     public Page<Adopter> findByName(String name, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
@@ -151,6 +180,7 @@ public class AdopterService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Page<Adopter> findByEmailContaining(String email, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
@@ -167,28 +197,66 @@ public class AdopterService {
         return result;
     }
 
-    public Page<Adopter> findWithFilters(String name, String email, String cpf, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<AdopterDto> findWithFilters(String name, String email, String cpf, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         log.debug("Finding adopters with filters - name: {}, email: {}, cpf: {}",
                 name, maskEmail(email), maskCpf(cpf));
 
-        Page<Adopter> result = adopterRepository.findWithFilters(name, email, cpf, pageable);
+        Page<AdopterDto> result = adopterRepository.findWithFilters(name, email, cpf, pageable);
 
         log.debug("Found {} adopters matching filters", result.getTotalElements());
         return result;
     }
 
+    @Transactional(readOnly = true)
+    public Slice<AdopterDto> findSliceWithFilters(String name, String email, String cpf, Pageable pageable) {
+        Objects.requireNonNull(pageable, "Pageable cannot be null");
+
+        log.debug("Finding adopter slice with filters - name: {}, email: {}, cpf: {}",
+                name, maskEmail(email), maskCpf(cpf));
+
+        return adopterRepository.findSliceWithFilters(name, email, cpf, pageable);
+    }
+
+    public void forEachWithFilters(String name, String email, String cpf, Consumer<Adopter> action) {
+        Objects.requireNonNull(action, "Action cannot be null");
+
+        log.debug("Streaming adopters with filters - name: {}, email: {}, cpf: {}",
+                name, maskEmail(email), maskCpf(cpf));
+
+        adopterRepository.forEachWithFilters(name, email, cpf, action);
+    }
+
+    @Transactional(readOnly = true)
     public long countAll() {
         log.debug("Counting all adopters");
         return adopterRepository.count();
     }
 
-    private void validateAdopterExists(UUID id) {
-        if (!adopterRepository.existsById(id)) {
-            String message = String.format("Adopter not found with id: %s", id);
-            log.warn(message);
-            throw new AdopterNotFoundException(message);
+    private static boolean addressChanged(Address current, Address updated) {
+        if (current == null || updated == null) {
+            return current != updated;
+        }
+        return !Objects.equals(current.getStreet(), updated.getStreet())
+                || !Objects.equals(current.getNeighborhood(), updated.getNeighborhood())
+                || !Objects.equals(current.getCity(), updated.getCity())
+                || !Objects.equals(current.getState(), updated.getState())
+                || !Objects.equals(current.getNumber(), updated.getNumber())
+                || !Objects.equals(current.getZipCode(), updated.getZipCode())
+                || !Objects.equals(current.getComplement(), updated.getComplement());
+    }
+
+    /** O endereço enviado é o atual se tiver o mesmo id; qualquer outro id vira um endereço novo */
+    private static void matchAddressVersion(Address current, Address updated) {
+        if (updated == null || updated.getId() == null) {
+            return;
+        }
+        if (current != null && updated.getId().equals(current.getId())) {
+            updated.setVersion(current.getVersion());
+        } else {
+            updated.setId(null);
         }
     }
 
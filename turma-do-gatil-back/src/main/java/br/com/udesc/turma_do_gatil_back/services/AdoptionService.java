@@ -1,25 +1,37 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
+import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
 import br.com.udesc.turma_do_gatil_back.entities.Adoption;
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
 import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
 import br.com.udesc.turma_do_gatil_back.exceptions.AdoptionNotFoundException;
 import br.com.udesc.turma_do_gatil_back.exceptions.CatAlreadyInAdoptionProcessException;
+import br.com.udesc.turma_do_gatil_back.exceptions.CatNotFoundException;
 import br.com.udesc.turma_do_gatil_back.repositories.AdoptionRepository;
-import br.com.udesc.turma_do_gatil_back.repositories.CatRepository;
+import br.com.udesc.turma_do_gatil_back.repositories.BulkWriteRepository;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,9 +39,9 @@ import java.util.UUID;
 public class AdoptionService {
 
     private final AdoptionRepository adoptionRepository;
-    private final CatRepository catRepository;
-    private final SecurityService securityService;
+    private final CatService catService;
 
+    @Transactional(readOnly = true)
     public Page<Adoption> findAll(Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
@@ -42,12 +54,15 @@ public class AdoptionService {
         return adoptions;
     }
 
-    public Optional<Adoption> findById(UUID id) {
+    @Transactional(readOnly = true)
+    public Optional<Adoption> findById(UUID id, Set<AdoptionExpansion> expand) {
         Objects.requireNonNull(id, "Adoption ID cannot be null");
 
-        log.debug("Finding adoption by ID: {}", id);
+        log.debug("Finding adoption by ID: {} expanding {}", id, expand);
 
-        Optional<Adoption> adoption = adoptionRepository.findById(id);
+        Optional<Adoption> adoption = expand.isEmpty()
+                ? adoptionRepository.findById(id)
+                : adoptionRepository.findExpandedById(id, expand);
 
         if (adoption.isPresent()) {
             log.debug("Found adoption with ID: {}", id);
@@ -67,12 +82,12 @@ public class AdoptionService {
 
         log.info("Creating new adoption for cat ID: {} and adopter ID: {} with status: {}", adoption.getCatId(), adoption.getAdopterId(), adoption.getStatus());
 
-        Optional<Cat> catOptional = catRepository.findById(adoption.getCatId());
+        Optional<Cat> catOptional = catService.findById(adoption.getCatId());
         if (catOptional.isEmpty()) {
             throw new RuntimeException("Cat not found with id: " + adoption.getCatId());
         }
         Cat cat = catOptional.get();
-        if (cat.getAdoptionStatus() == CatAdoptionStatus.EM_PROCESSO || cat.getAdoptionStatus() == CatAdoptionStatus.ADOTADO) {
+        if (isInAdoptionProcess(cat)) {
             throw new CatAlreadyInAdoptionProcessException("Cat is already in adoption process or adopted");
         }
 
@@ -84,6 +99,53 @@ public class AdoptionService {
         return savedAdoption;
     }
 
+    /**
+     * Cria as adoções em lote: os inserts saem em batch JDBC e o status dos gatos é recalculado uma única vez.
+     * Aplica as mesmas regras de {@link #save(Adoption)}, na ordem do lote; qualquer violação desfaz o lote inteiro.
+     */
+    @Transactional
+    public List<Adoption> saveAll(List<Adoption> adoptions) {
+        Objects.requireNonNull(adoptions, "Adoptions cannot be null");
+        BulkWriteRepository.validateBatchSize(adoptions.size());
+
+        log.info("Creating batch of {} adoptions", adoptions.size());
+
+        adoptions.forEach(adoption -> {
+            Objects.requireNonNull(adoption, "Adoption cannot be null");
+            Objects.requireNonNull(adoption.getCatId(), "Cat ID cannot be null");
+            Objects.requireNonNull(adoption.getAdopterId(), "Adopter ID cannot be null");
+            Objects.requireNonNull(adoption.getStatus(), "Adoption status cannot be null");
+            adoption.setId(null);
+        });
+
+        Set<UUID> catIds = adoptions.stream()
+                .map(Adoption::getCatId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<UUID, Cat> cats = catService.findAllById(catIds).stream()
+                .collect(Collectors.toMap(Cat::getId, Function.identity()));
+
+        // Gatos que ficam em processo por uma adoção anterior do próprio lote
+        Set<UUID> catsInProcess = new HashSet<>();
+        for (Adoption adoption : adoptions) {
+            Cat cat = cats.get(adoption.getCatId());
+            if (cat == null) {
+                throw new CatNotFoundException("Cat not found with id: " + adoption.getCatId());
+            }
+            if (isInAdoptionProcess(cat) || catsInProcess.contains(cat.getId())) {
+                throw new CatAlreadyInAdoptionProcessException("Cat is already in adoption process or adopted: " + cat.getId());
+            }
+            if (adoption.getStatus() != AdoptionStatus.CANCELED) {
+                catsInProcess.add(cat.getId());
+            }
+        }
+
+        List<Adoption> savedAdoptions = adoptionRepository.persistAll(adoptions);
+        catService.recomputeAdoptionStatus(catIds);
+
+        log.info("Successfully created {} adoptions", savedAdoptions.size());
+        return savedAdoptions;
+    }
+
     @Transactional
     public Adoption update(UUID id, Adoption adoption) {
         Objects.requireNonNull(id, "Adoption ID cannot be null");
@@ -94,12 +156,17 @@ public class AdoptionService {
 
         log.info("Updating adoption with ID: {}", id);
 
-        if (!adoptionRepository.existsById(id)) {
-            log.warn("Attempted to update non-existent adoption with ID: {}", id);
-            throw new AdoptionNotFoundException("Adoption not found with id: " + id);
-        }
+        // Carregar em vez de só checar a existência: o save (merge) reaproveita a instância já
+        // gerenciada e não consulta a adoção de novo
+        Adoption current = adoptionRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Attempted to update non-existent adoption with ID: {}", id);
+                    return new AdoptionNotFoundException("Adoption not found with id: " + id);
+                });
+        current.checkVersion(adoption.getVersion());
 
         adoption.setId(id);
+        adoption.setVersion(current.getVersion());
         Adoption updatedAdoption = adoptionRepository.save(adoption);
         updateCatAdoptionStatus(adoption.getCatId());
 
@@ -108,7 +175,22 @@ public class AdoptionService {
     }
 
     @Transactional
-    public void deleteById(UUID id) {
+    public Adoption updateAdoptionTermPhoto(UUID id, String adoptionTermPhoto) {
+        Objects.requireNonNull(id, "Adoption ID cannot be null");
+
+        Adoption adoption = adoptionRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Attempted to update term photo of non-existent adoption with ID: {}", id);
+                    return new AdoptionNotFoundException("Adoption not found with id: " + id);
+                });
+
+        adoption.setAdoptionTermPhoto(adoptionTermPhoto);
+        log.info("Adoption term photo updated for adoption with ID: {}", id);
+        return adoption;
+    }
+
+    @Transactional
+    public void deleteById(UUID id, Long expectedVersion) {
         Objects.requireNonNull(id, "Adoption ID cannot be null");
 
         log.info("Deleting adoption with ID: {}", id);
@@ -118,51 +200,55 @@ public class AdoptionService {
                     log.warn("Attempted to delete non-existent adoption with ID: {}", id);
                     return new AdoptionNotFoundException("Adoption not found with id: " + id);
                 });
+        adoption.checkVersion(expectedVersion);
 
         UUID catId = adoption.getCatId();
-        adoption.setDeletedBy(securityService.getCurrentUsername());
         adoptionRepository.delete(adoption);
         updateCatAdoptionStatus(catId);
 
         log.info("Successfully soft deleted adoption with ID: {} for cat ID: {}", id, catId);
     }
 
-    public Page<Adoption> findByStatus(AdoptionStatus status, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<AdoptionDto> findByStatus(AdoptionStatus status, Pageable pageable, Set<AdoptionExpansion> expand) {
         Objects.requireNonNull(status, "Adoption status cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         log.debug("Finding adoptions by status: {}", status);
 
-        Page<Adoption> adoptions = adoptionRepository.findByStatus(status, pageable);
+        Page<AdoptionDto> adoptions = adoptionRepository.findByStatus(status, pageable, expand);
 
         log.debug("Found {} adoptions with status: {}", adoptions.getTotalElements(), status);
         return adoptions;
     }
 
-    public Page<Adoption> findByCatId(UUID catId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<AdoptionDto> findByCatId(UUID catId, Pageable pageable, Set<AdoptionExpansion> expand) {
         Objects.requireNonNull(catId, "Cat ID cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         log.debug("Finding adoptions by cat ID: {}", catId);
 
-        Page<Adoption> adoptions = adoptionRepository.findByCatId(catId, pageable);
+        Page<AdoptionDto> adoptions = adoptionRepository.findByCatId(catId, pageable, expand);
 
         log.debug("Found {} adoptions for cat ID: {}", adoptions.getTotalElements(), catId);
         return adoptions;
     }
 
-    public Page<Adoption> findByAdopterId(UUID adopterId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<AdoptionDto> findByAdopterId(UUID adopterId, Pageable pageable, Set<AdoptionExpansion> expand) {
         Objects.requireNonNull(adopterId, "Adopter ID cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         log.debug("Finding adoptions by adopter ID: {}", adopterId);
 
-        Page<Adoption> adoptions = adoptionRepository.findByAdopterId(adopterId, pageable);
+        Page<AdoptionDto> adoptions = adoptionRepository.findByAdopterId(adopterId, pageable, expand);
 
         log.debug("Found {} adoptions for adopter ID: {}", adoptions.getTotalElements(), adopterId);
         return adoptions;
     }
 
+    @Transactional(readOnly = true)
     public Page<Adoption> findByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         Objects.requireNonNull(startDate, "Start date cannot be null");
         Objects.requireNonNull(endDate, "End date cannot be null");
@@ -180,6 +266,7 @@ public class AdoptionService {
         return adoptions;
     }
 
+    @Transactional(readOnly = true)
     public List<Adoption> findByCatIdAndStatus(UUID catId, AdoptionStatus status) {
         Objects.requireNonNull(catId, "Cat ID cannot be null");
         Objects.requireNonNull(status, "Adoption status cannot be null");
@@ -192,9 +279,17 @@ public class AdoptionService {
         return adoptions;
     }
 
-    public Page<Adoption> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
-                                          String catName, String adopterName,
-                                          LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Map<AdoptionStatus, Long> countGroupedByStatus() {
+        log.debug("Counting adoptions grouped by status");
+        return adoptionRepository.countGroupedByStatus();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AdoptionDto> findWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                             String catName, String adopterName,
+                                             LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                             Set<AdoptionExpansion> expand) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
@@ -204,53 +299,70 @@ public class AdoptionService {
         log.debug("Finding adoptions with filters - status: {}, catId: {}, adopterId: {}, catName: {}, adopterName: {}, dateRange: {} to {}",
                 status, catId, adopterId, catName, adopterName, startDate, endDate);
 
-        Page<Adoption> adoptions = adoptionRepository.findWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable);
+        Page<AdoptionDto> adoptions = adoptionRepository.findWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable, expand);
 
         log.debug("Found {} adoptions with applied filters", adoptions.getTotalElements());
         return adoptions;
     }
 
-    private void updateCatAdoptionStatus(UUID catId) {
-        Objects.requireNonNull(catId, "Cat ID cannot be null");
-
-        log.debug("Updating adoption status for cat ID: {}", catId);
+    @Transactional(readOnly = true)
+    public Slice<AdoptionDto> findSliceWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                                   String catName, String adopterName,
+                                                   LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                                   Set<AdoptionExpansion> expand) {
+        Objects.requireNonNull(pageable, "Pageable cannot be null");
 
-        Optional<Cat> catOptional = catRepository.findById(catId);
-        if (catOptional.isEmpty()) {
-            log.warn("Cat not found with ID: {} when updating adoption status", catId);
-            return;
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
 
-        Cat cat = catOptional.get();
-        CatAdoptionStatus currentStatus = cat.getAdoptionStatus();
-        CatAdoptionStatus newStatus = calculateCatAdoptionStatus(catId);
+        log.debug("Finding adoption slice with filters - status: {}, catId: {}, adopterId: {}, catName: {}, adopterName: {}, dateRange: {} to {}",
+                status, catId, adopterId, catName, adopterName, startDate, endDate);
 
-        if (!currentStatus.equals(newStatus)) {
-            cat.setAdoptionStatus(newStatus);
-            catRepository.save(cat);
+        return adoptionRepository.findSliceWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, pageable, expand);
+    }
 
-            log.info("Updated cat ID: {} adoption status from {} to {}",
-                    catId, currentStatus, newStatus);
-        } else {
-            log.debug("Cat ID: {} adoption status remains unchanged: {}", catId, currentStatus);
+    public void forEachWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                   String catName, String adopterName,
+                                   LocalDateTime startDate, LocalDateTime endDate, Consumer<Adoption> action) {
+        Objects.requireNonNull(action, "Action cannot be null");
+
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
+
+        log.debug("Streaming adoptions with filters - status: {}, catId: {}, adopterId: {}, catName: {}, adopterName: {}, dateRange: {} to {}",
+                status, catId, adopterId, catName, adopterName, startDate, endDate);
+
+        adoptionRepository.forEachWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, action);
     }
 
-    private CatAdoptionStatus calculateCatAdoptionStatus(UUID catId) {
-        boolean hasCompletedAdoptions = hasAdoptionsWithStatus(catId, AdoptionStatus.COMPLETED);
-        if (hasCompletedAdoptions) {
-            return CatAdoptionStatus.ADOTADO;
+    @Transactional(readOnly = true)
+    public Slice<AdoptionDto> scrollWithFilters(AdoptionStatus status, UUID catId, UUID adopterId,
+                                                String catName, String adopterName,
+                                                LocalDateTime startDate, LocalDateTime endDate, String cursor, int size,
+                                                Set<AdoptionExpansion> expand) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
 
-        boolean hasPendingAdoptions = hasAdoptionsWithStatus(catId, AdoptionStatus.PENDING);
-        if (hasPendingAdoptions) {
-            return CatAdoptionStatus.EM_PROCESSO;
-        }
+        KeysetCursor.validateSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        log.debug("Scrolling adoptions with filters - status: {}, catId: {}, adopterId: {}, catName: {}, adopterName: {}, dateRange: {} to {}, after: {}",
+                status, catId, adopterId, catName, adopterName, startDate, endDate, after != null ? after.getId() : null);
 
-        return CatAdoptionStatus.NAO_ADOTADO;
+        return adoptionRepository.scrollWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate,
+                after != null ? after.keyAsDateTime() : null, after != null ? after.getId() : null, size, expand);
+    }
+
+    private void updateCatAdoptionStatus(UUID catId) {
+        Objects.requireNonNull(catId, "Cat ID cannot be null");
+
+        log.debug("Updating adoption status for cat ID: {}", catId);
+        catService.recomputeAdoptionStatus(List.of(catId));
     }
 
-    private boolean hasAdoptionsWithStatus(UUID catId, AdoptionStatus status) {
-        return adoptionRepository.existsByCatIdAndStatus(catId, status);
+    private boolean isInAdoptionProcess(Cat cat) {
+        return cat.getAdoptionStatus() == CatAdoptionStatus.EM_PROCESSO || cat.getAdoptionStatus() == CatAdoptionStatus.ADOTADO;
     }
 }
@@ -60,8 +60,19 @@ public class AuthService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user);
 
         return new LoginResponseDto(token, user.getUsername(), user.getName());
     }
+
+    /**
+     * Revoga todos os tokens já emitidos para o usuário incrementando a versão de token.
+     */
+    @Transactional
+    public void revokeTokens(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+    }
 }
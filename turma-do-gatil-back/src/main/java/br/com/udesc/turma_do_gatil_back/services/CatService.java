@@ -1,23 +1,35 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
+import br.com.udesc.turma_do_gatil_back.dto.CatDto;
 import br.com.udesc.turma_do_gatil_back.dto.CatSterilizationStatusDto;
 import br.com.udesc.turma_do_gatil_back.dto.SterilizationStatsDto;
 import br.com.udesc.turma_do_gatil_back.entities.Cat;
 import br.com.udesc.turma_do_gatil_back.enums.*;
 import br.com.udesc.turma_do_gatil_back.exceptions.CatNotFoundException;
+import br.com.udesc.turma_do_gatil_back.repositories.BulkWriteRepository;
 import br.com.udesc.turma_do_gatil_back.repositories.CatRepository;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +40,9 @@ public class CatService {
     private final CatRepository catRepository;
     private final PropertiesService propertiesService;
     private final SecurityService securityService;
+    private final CatStatusCounterService catStatusCounterService;
 
+    @Transactional(readOnly = true)
     public Page<Cat> findAll(Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding all cats with pagination: page={}, size={}",
@@ -37,6 +51,7 @@ public class CatService {
         return catRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Cat> findById(UUID id) {
         Objects.requireNonNull(id, "Cat ID cannot be null");
         log.debug("Finding cat by ID: {}", id);
@@ -44,36 +59,118 @@ public class CatService {
         return catRepository.findById(id);
     }
 
+    @Transactional
     public Cat save(Cat cat) {
         Objects.requireNonNull(cat, "Cat cannot be null");
         log.info("Saving new cat: {}", cat.getName());
         cat.setAdoptionStatus(CatAdoptionStatus.NAO_ADOTADO);
 
         Cat savedCat = catRepository.save(cat);
+        catStatusCounterService.increment(savedCat.getAdoptionStatus());
         log.info("Cat saved successfully with ID: {}", savedCat.getId());
 
         return savedCat;
     }
 
+    @Transactional
+    public List<Cat> saveAll(List<Cat> cats) {
+        Objects.requireNonNull(cats, "Cats cannot be null");
+        BulkWriteRepository.validateBatchSize(cats.size());
+        log.info("Saving batch of {} cats", cats.size());
+
+        cats.forEach(cat -> {
+            Objects.requireNonNull(cat, "Cat cannot be null");
+            cat.setId(null);
+            cat.setAdoptionStatus(CatAdoptionStatus.NAO_ADOTADO);
+        });
+
+        List<Cat> savedCats = catRepository.persistAll(cats);
+        catStatusCounterService.increment(CatAdoptionStatus.NAO_ADOTADO, savedCats.size());
+        log.info("Batch of {} cats saved successfully", savedCats.size());
+
+        return savedCats;
+    }
+
+    @Transactional
     public Cat update(UUID id, Cat cat) {
         Objects.requireNonNull(id, "Cat ID cannot be null");
         Objects.requireNonNull(cat, "Cat cannot be null");
 
         log.debug("Updating cat with ID: {}", id);
 
-        if (!catRepository.existsById(id)) {
-            log.warn("Attempt to update non-existent cat with ID: {}", id);
-            throw new CatNotFoundException("Cat not found with id: " + id);
-        }
+        Cat current = catRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Attempt to update non-existent cat with ID: {}", id);
+                    return new CatNotFoundException("Cat not found with id: " + id);
+                });
+        current.checkVersion(cat.getVersion());
+        CatAdoptionStatus previousStatus = current.getAdoptionStatus();
 
         cat.setId(id);
+        cat.setVersion(current.getVersion());
         Cat updatedCat = catRepository.save(cat);
+        catStatusCounterService.move(previousStatus, updatedCat.getAdoptionStatus());
         log.info("Cat updated successfully: {}", updatedCat.getName());
 
         return updatedCat;
     }
 
-    public void deleteById(UUID id) {
+    @Transactional
+    public List<Cat> updateAll(List<Cat> cats) {
+        Objects.requireNonNull(cats, "Cats cannot be null");
+        BulkWriteRepository.validateBatchSize(cats.size());
+        log.info("Updating batch of {} cats", cats.size());
+
+        Set<UUID> ids = new HashSet<>();
+        cats.forEach(cat -> {
+            Objects.requireNonNull(cat, "Cat cannot be null");
+            Objects.requireNonNull(cat.getId(), "Cat ID cannot be null");
+            if (!ids.add(cat.getId())) {
+                throw new IllegalArgumentException("Duplicate cat ID in batch: " + cat.getId());
+            }
+        });
+
+        Map<UUID, CatAdoptionStatus> previousStatuses = catRepository.findAdoptionStatuses(ids).stream()
+                .collect(Collectors.toMap(row -> (UUID) row[0], row -> (CatAdoptionStatus) row[1]));
+        ids.stream()
+                .filter(id -> !previousStatuses.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new CatNotFoundException("Cat not found with id: " + id);
+                });
+
+        List<Cat> updatedCats = catRepository.mergeAll(cats);
+
+        Map<CatAdoptionStatus, Map<CatAdoptionStatus, Long>> transitions = updatedCats.stream()
+                .collect(Collectors.groupingBy(cat -> previousStatuses.get(cat.getId()),
+                        () -> new EnumMap<>(CatAdoptionStatus.class),
+                        Collectors.groupingBy(Cat::getAdoptionStatus,
+                                () -> new EnumMap<>(CatAdoptionStatus.class),
+                                Collectors.counting())));
+        transitions.forEach((from, counts) -> counts.forEach((to, catCount) ->
+                catStatusCounterService.move(from, to, catCount)));
+
+        log.info("Batch of {} cats updated successfully", updatedCats.size());
+        return updatedCats;
+    }
+
+    @Transactional
+    public Cat updatePhotoUrl(UUID id, String photoUrl) {
+        Objects.requireNonNull(id, "Cat ID cannot be null");
+
+        Cat cat = catRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Attempt to update photo of non-existent cat with ID: {}", id);
+                    return new CatNotFoundException("Cat not found with id: " + id);
+                });
+
+        cat.setPhotoUrl(photoUrl);
+        log.info("Photo of cat {} updated", id);
+        return cat;
+    }
+
+    @Transactional
+    public void deleteById(UUID id, Long expectedVersion) {
         Objects.requireNonNull(id, "Cat ID cannot be null");
         log.debug("Deleting cat with ID: {}", id);
 
@@ -82,12 +179,14 @@ public class CatService {
                     log.warn("Attempt to delete non-existent cat with ID: {}", id);
                     return new CatNotFoundException("Cat not found with id: " + id);
                 });
+        cat.checkVersion(expectedVersion);
 
-        cat.setDeletedBy(securityService.getCurrentUsername());
         catRepository.delete(cat);
+        catStatusCounterService.decrement(cat.getAdoptionStatus());
         log.info("Cat soft deleted successfully with ID: {}", id);
     }
 
+    @Transactional(readOnly = true)
     public Page<Cat> findByAdoptionStatus(CatAdoptionStatus adoptionStatus, Pageable pageable) {
         Objects.requireNonNull(adoptionStatus, "Adoption status cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
@@ -96,6 +195,7 @@ public class CatService {
         return catRepository.findByAdoptionStatus(adoptionStatus, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Cat> findByColor(Color color, Pageable pageable) {
         Objects.requireNonNull(color, "Color cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
@@ -104,6 +204,7 @@ public class CatService {
         return catRepository.findByColor(color, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Cat> findBySex(Sex sex, Pageable pageable) {
         Objects.requireNonNull(sex, "Sex cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
@@ -112,6 +213,7 @@ public class CatService {
         return catRepository.findBySex(sex, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Cat> findByName(String name, Pageable pageable) {
         Objects.requireNonNull(name, "Name cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
@@ -120,8 +222,9 @@ public class CatService {
         return catRepository.findByNameContainingIgnoreCase(name, pageable);
     }
 
-    public Page<Cat> findWithFilters(String name, Color color, Sex sex,
-                                     CatAdoptionStatus adoptionStatus, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<CatDto> findWithFilters(String name, Color color, Sex sex,
+                                        CatAdoptionStatus adoptionStatus, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         String normalizedName = normalizeSearchName(name);
@@ -131,18 +234,63 @@ public class CatService {
         return catRepository.findWithFilters(normalizedName, color, sex, adoptionStatus, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<CatDto> findSliceWithFilters(String name, Color color, Sex sex,
+                                              CatAdoptionStatus adoptionStatus, Pageable pageable) {
+        Objects.requireNonNull(pageable, "Pageable cannot be null");
+
+        String normalizedName = normalizeSearchName(name);
+        log.debug("Finding cat slice with filters - name: {}, color: {}, sex: {}, adoptionStatus: {}",
+                normalizedName, color, sex, adoptionStatus);
+
+        return catRepository.findSliceWithFilters(normalizedName, color, sex, adoptionStatus, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<CatDto> scrollWithFilters(String name, Color color, Sex sex,
+                                           CatAdoptionStatus adoptionStatus, String cursor, int size) {
+        String normalizedName = normalizeSearchName(name);
+        KeysetCursor.validateSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        log.debug("Scrolling cats with filters - name: {}, color: {}, sex: {}, adoptionStatus: {}, after: {}",
+                normalizedName, color, sex, adoptionStatus, after != null ? after.getId() : null);
+
+        return catRepository.scrollWithFilters(normalizedName, color, sex, adoptionStatus,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null, size);
+    }
+
+    public void forEachWithFilters(String name, Color color, Sex sex,
+                                   CatAdoptionStatus adoptionStatus, Consumer<Cat> action) {
+        Objects.requireNonNull(action, "Action cannot be null");
+
+        String normalizedName = normalizeSearchName(name);
+        log.debug("Streaming cats with filters - name: {}, color: {}, sex: {}, adoptionStatus: {}",
+                normalizedName, color, sex, adoptionStatus);
+
+        catRepository.forEachWithFilters(normalizedName, color, sex, adoptionStatus, action);
+    }
+
+    @Transactional(readOnly = true)
     public long countByAdoptionStatus(CatAdoptionStatus adoptionStatus) {
         Objects.requireNonNull(adoptionStatus, "Adoption status cannot be null");
         log.debug("Counting cats by adoption status: {}", adoptionStatus);
         
-        return catRepository.countByAdoptionStatus(adoptionStatus);
+        return catStatusCounterService.count(adoptionStatus);
     }
 
+    @Transactional(readOnly = true)
     public long countAll() {
         log.debug("Counting all cats");
-        return catRepository.count();
+        return catStatusCounterService.countAll().values().stream().mapToLong(Long::longValue).sum();
     }
 
+    @Transactional(readOnly = true)
+    public Map<CatAdoptionStatus, Long> countGroupedByAdoptionStatus() {
+        log.debug("Counting cats grouped by adoption status");
+        return catStatusCounterService.countAll();
+    }
+
+    @Transactional(readOnly = true)
     public List<CatSterilizationStatusDto> findCatsNeedingSterilization() {
         log.debug("Finding cats needing sterilization");
 
@@ -158,6 +306,7 @@ public class CatService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Page<CatSterilizationStatusDto> findCatsNeedingSterilization(Pageable pageable) {
         log.debug("Finding cats needing sterilization with pagination");
 
@@ -186,6 +335,75 @@ public class CatService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
+    public List<Cat> findAllById(Collection<UUID> ids) {
+        Objects.requireNonNull(ids, "Cat IDs cannot be null");
+        log.debug("Finding {} cats by ID", ids.size());
+
+        return catRepository.findAllById(ids);
+    }
+
+    /**
+     * Recalcula o status de adoção dos gatos em uma única instrução e ajusta os contadores por status.
+     * O dashboard é invalidado pelas próprias escritas de adoção que motivam o recálculo.
+     */
+    @Transactional
+    public void recomputeAdoptionStatus(Collection<UUID> catIds) {
+        Objects.requireNonNull(catIds, "Cat IDs cannot be null");
+        if (catIds.isEmpty()) {
+            return;
+        }
+
+        log.debug("Recomputing adoption status for {} cats", catIds.size());
+
+        // A consulta nativa precisa enxergar as adoções ainda pendentes no contexto de persistência
+        catRepository.flush();
+        List<Object[]> transitions = catRepository.recomputeAdoptionStatus(catIds, securityService.getCurrentUsername());
+        if (!transitions.isEmpty()) {
+            // O UPDATE dentro da consulta não passa pelo Hibernate, que não invalidaria o cache de segundo nível
+            catRepository.evictFromSecondLevelCache(catIds);
+        }
+
+        for (Object[] transition : transitions) {
+            CatAdoptionStatus previousStatus = CatAdoptionStatus.valueOf((String) transition[0]);
+            CatAdoptionStatus newStatus = CatAdoptionStatus.valueOf((String) transition[1]);
+            long catCount = ((Number) transition[2]).longValue();
+
+            catStatusCounterService.move(previousStatus, newStatus, catCount);
+            log.info("Updated adoption status of {} cats from {} to {}", catCount, previousStatus, newStatus);
+        }
+    }
+
+    @Transactional
+    public void refreshSterilizationState(UUID catId) {
+        Objects.requireNonNull(catId, "Cat ID cannot be null");
+        refreshSterilizationState(List.of(catId));
+    }
+
+    @Transactional
+    public void refreshSterilizationState(Collection<UUID> catIds) {
+        Objects.requireNonNull(catIds, "Cat IDs cannot be null");
+        if (catIds.isEmpty()) {
+            return;
+        }
+        log.debug("Refreshing sterilization state for cats: {}", catIds);
+
+        if (catRepository.refreshSterilizationState(catIds) > 0) {
+            catRepository.evictFromSecondLevelCache(catIds);
+        }
+    }
+
+    @Scheduled(cron = "${cats.sterilization-state.consistency-cron:0 0 3 * * *}")
+    @Transactional
+    public void reconcileSterilizationState() {
+        int fixedCount = catRepository.reconcileSterilizationState();
+        if (fixedCount > 0) {
+            log.warn("Sterilization state was inconsistent for {} cats and has been fixed", fixedCount);
+        } else {
+            log.debug("Sterilization state is consistent for all cats");
+        }
+    }
+
     private String normalizeSearchName(String name) {
         return (name != null && name.trim().isEmpty()) ? null : name;
     }
@@ -0,0 +1,91 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.CatStatusCounter;
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.repositories.CatStatusCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatStatusCounterService {
+
+    private final CatStatusCounterRepository catStatusCounterRepository;
+
+    public long count(CatAdoptionStatus adoptionStatus) {
+        Objects.requireNonNull(adoptionStatus, "Adoption status cannot be null");
+        return catStatusCounterRepository.findById(adoptionStatus)
+                .map(CatStatusCounter::getCatCount)
+                .orElse(0L);
+    }
+
+    public Map<CatAdoptionStatus, Long> countAll() {
+        Map<CatAdoptionStatus, Long> counts = new EnumMap<>(CatAdoptionStatus.class);
+        for (CatAdoptionStatus status : CatAdoptionStatus.values()) {
+            counts.put(status, 0L);
+        }
+        catStatusCounterRepository.findAll()
+                .forEach(counter -> counts.put(counter.getAdoptionStatus(), counter.getCatCount()));
+        return counts;
+    }
+
+    @Transactional
+    public void increment(CatAdoptionStatus adoptionStatus) {
+        increment(adoptionStatus, 1);
+    }
+
+    @Transactional
+    public void increment(CatAdoptionStatus adoptionStatus, long catCount) {
+        Objects.requireNonNull(adoptionStatus, "Adoption status cannot be null");
+        catStatusCounterRepository.increment(adoptionStatus.name(), catCount);
+    }
+
+    @Transactional
+    public void decrement(CatAdoptionStatus adoptionStatus) {
+        Objects.requireNonNull(adoptionStatus, "Adoption status cannot be null");
+        catStatusCounterRepository.increment(adoptionStatus.name(), -1);
+    }
+
+    @Transactional
+    public void move(CatAdoptionStatus from, CatAdoptionStatus to) {
+        move(from, to, 1);
+    }
+
+    @Transactional
+    public void move(CatAdoptionStatus from, CatAdoptionStatus to, long catCount) {
+        Objects.requireNonNull(from, "Previous adoption status cannot be null");
+        Objects.requireNonNull(to, "New adoption status cannot be null");
+        if (from == to || catCount == 0) {
+            return;
+        }
+
+        // Sempre na mesma ordem para que transações concorrentes não travem uma à outra
+        if (from.ordinal() < to.ordinal()) {
+            catStatusCounterRepository.increment(from.name(), -catCount);
+            catStatusCounterRepository.increment(to.name(), catCount);
+        } else {
+            catStatusCounterRepository.increment(to.name(), catCount);
+            catStatusCounterRepository.increment(from.name(), -catCount);
+        }
+    }
+
+    @Scheduled(cron = "${cats.status-counters.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        catStatusCounterRepository.lockForReconcile();
+        int fixedCount = catStatusCounterRepository.reconcile();
+        if (fixedCount > 0) {
+            log.warn("Cat status counters were out of sync for {} statuses and have been recomputed", fixedCount);
+        } else {
+            log.debug("Cat status counters are consistent");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.dto.CatSummaryDto;
+import br.com.udesc.turma_do_gatil_back.dto.DashboardDto;
+import br.com.udesc.turma_do_gatil_back.dto.DashboardSummaryDto;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    private final CatService catService;
+    private final SterilizationService sterilizationService;
+    private final AdoptionService adoptionService;
+    private final AdopterService adopterService;
+
+    @Value("${dashboard.cache.ttl-ms:10000}")
+    private long ttlMillis;
+
+    private volatile CachedDashboard cached;
+
+    private final TransactionSynchronization invalidateAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            cached = null;
+        }
+    };
+
+    public DashboardDto getDashboard() {
+        CachedDashboard current = cached;
+        if (current != null && !current.isExpired()) {
+            return current.dashboard;
+        }
+
+        synchronized (this) {
+            current = cached;
+            if (current == null || current.isExpired()) {
+                current = new CachedDashboard(computeDashboard(), System.currentTimeMillis() + ttlMillis);
+                cached = current;
+            }
+            return current.dashboard;
+        }
+    }
+
+    public DashboardSummaryDto getDashboardSummary() {
+        DashboardDto dashboard = getDashboard();
+        return new DashboardSummaryDto(
+                dashboard.getCatsByAdoptionStatus().get(CatAdoptionStatus.NAO_ADOTADO),
+                dashboard.getSterilizationsByStatus().get(SterilizationStatus.SCHEDULED),
+                dashboard.getRegisteredAdoptersCount()
+        );
+    }
+
+    public CatSummaryDto getCatSummary() {
+        DashboardDto dashboard = getDashboard();
+        Map<CatAdoptionStatus, Long> cats = dashboard.getCatsByAdoptionStatus();
+        return new CatSummaryDto(
+                cats.get(CatAdoptionStatus.NAO_ADOTADO),
+                cats.get(CatAdoptionStatus.ADOTADO),
+                cats.get(CatAdoptionStatus.EM_PROCESSO),
+                dashboard.getTotalCatsCount()
+        );
+    }
+
+    /**
+     * Descarta o resultado em cache. Dentro de uma transação, descarta de novo após o commit
+     * para que uma leitura concorrente não guarde dados anteriores à escrita.
+     */
+    public void invalidate() {
+        cached = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.getSynchronizations().contains(invalidateAfterCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(invalidateAfterCommit);
+        }
+    }
+
+    private DashboardDto computeDashboard() {
+        log.debug("Computing dashboard aggregates");
+
+        Map<CatAdoptionStatus, Long> catsByStatus = catService.countGroupedByAdoptionStatus();
+        long totalCats = catsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        Map<SterilizationStatus, Long> sterilizationsByStatus = sterilizationService.countGroupedByStatus();
+        Map<AdoptionStatus, Long> adoptionsByStatus = adoptionService.countGroupedByStatus();
+        long adopters = adopterService.countAll();
+
+        return new DashboardDto(catsByStatus, totalCats, sterilizationsByStatus, adoptionsByStatus, adopters);
+    }
+
+    private static final class CachedDashboard {
+        private final DashboardDto dashboard;
+        private final long expiresAt;
+
+        private CachedDashboard(DashboardDto dashboard, long expiresAt) {
+            this.dashboard = dashboard;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
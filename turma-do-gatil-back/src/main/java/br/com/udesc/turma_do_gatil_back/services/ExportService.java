@@ -0,0 +1,145 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.Address;
+import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.entities.Cat;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.CatAdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.Color;
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
+import br.com.udesc.turma_do_gatil_back.enums.Sex;
+import br.com.udesc.turma_do_gatil_back.mappers.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Exportações para relatórios: as linhas são lidas por cursor e escritas direto na resposta,
+ * sem montar listas em memória.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final Map<String, Function<Cat, Object>> CAT_COLUMNS;
+    private static final Map<String, Function<Adopter, Object>> ADOPTER_COLUMNS;
+    private static final Map<String, Function<Adoption, Object>> ADOPTION_COLUMNS;
+
+    static {
+        Map<String, Function<Cat, Object>> catColumns = new LinkedHashMap<>();
+        catColumns.put("id", Cat::getId);
+        catColumns.put("name", Cat::getName);
+        catColumns.put("color", Cat::getColor);
+        catColumns.put("sex", Cat::getSex);
+        catColumns.put("birthDate", Cat::getBirthDate);
+        catColumns.put("shelterEntryDate", Cat::getShelterEntryDate);
+        catColumns.put("adoptionStatus", Cat::getAdoptionStatus);
+        catColumns.put("sterilizedOrScheduled", Cat::isSterilizedOrScheduled);
+        catColumns.put("lastSterilizationDate", Cat::getLastSterilizationDate);
+        catColumns.put("photoUrl", Cat::getPhotoUrl);
+        CAT_COLUMNS = Collections.unmodifiableMap(catColumns);
+
+        Map<String, Function<Adopter, Object>> adopterColumns = new LinkedHashMap<>();
+        adopterColumns.put("id", Adopter::getId);
+        adopterColumns.put("firstName", Adopter::getFirstName);
+        adopterColumns.put("lastName", Adopter::getLastName);
+        adopterColumns.put("birthDate", Adopter::getBirthDate);
+        adopterColumns.put("cpf", Adopter::getCpf);
+        adopterColumns.put("phone", Adopter::getPhone);
+        adopterColumns.put("email", Adopter::getEmail);
+        adopterColumns.put("instagram", Adopter::getInstagram);
+        adopterColumns.put("registrationDate", Adopter::getRegistrationDate);
+        adopterColumns.put("street", addressField(Address::getStreet));
+        adopterColumns.put("number", addressField(Address::getNumber));
+        adopterColumns.put("complement", addressField(Address::getComplement));
+        adopterColumns.put("neighborhood", addressField(Address::getNeighborhood));
+        adopterColumns.put("city", addressField(Address::getCity));
+        adopterColumns.put("state", addressField(Address::getState));
+        adopterColumns.put("zipCode", addressField(Address::getZipCode));
+        ADOPTER_COLUMNS = Collections.unmodifiableMap(adopterColumns);
+
+        Map<String, Function<Adoption, Object>> adoptionColumns = new LinkedHashMap<>();
+        adoptionColumns.put("id", Adoption::getId);
+        adoptionColumns.put("adoptionDate", Adoption::getAdoptionDate);
+        adoptionColumns.put("status", Adoption::getStatus);
+        adoptionColumns.put("catId", Adoption::getCatId);
+        adoptionColumns.put("catName", adoption -> adoption.getCat().getName());
+        adoptionColumns.put("adopterId", Adoption::getAdopterId);
+        adoptionColumns.put("adopterName", adoption -> adoption.getAdopter().getFirstName() + " " + adoption.getAdopter().getLastName());
+        adoptionColumns.put("adoptionTermPhoto", Adoption::getAdoptionTermPhoto);
+        ADOPTION_COLUMNS = Collections.unmodifiableMap(adoptionColumns);
+    }
+
+    private final CatService catService;
+    private final AdopterService adopterService;
+    private final AdoptionService adoptionService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportCats(String name, Color color, Sex sex, CatAdoptionStatus adoptionStatus,
+                           ExportFormat format, OutputStream outputStream) {
+        ExportWriter<Cat> writer = open(format, CAT_COLUMNS, outputStream);
+        long[] rowCount = {0};
+        catService.forEachWithFilters(name, color, sex, adoptionStatus, cat -> {
+            writer.write(cat);
+            rowCount[0]++;
+        });
+        writer.flush();
+        log.info("Exported {} cats as {}", rowCount[0], format);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAdopters(String name, String email, String cpf,
+                               ExportFormat format, OutputStream outputStream) {
+        ExportWriter<Adopter> writer = open(format, ADOPTER_COLUMNS, outputStream);
+        long[] rowCount = {0};
+        adopterService.forEachWithFilters(name, email, cpf, adopter -> {
+            writer.write(adopter);
+            rowCount[0]++;
+        });
+        writer.flush();
+        log.info("Exported {} adopters as {}", rowCount[0], format);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAdoptions(AdoptionStatus status, UUID catId, UUID adopterId,
+                                String catName, String adopterName,
+                                LocalDateTime startDate, LocalDateTime endDate,
+                                ExportFormat format, OutputStream outputStream) {
+        ExportWriter<Adoption> writer = open(format, ADOPTION_COLUMNS, outputStream);
+        long[] rowCount = {0};
+        adoptionService.forEachWithFilters(status, catId, adopterId, catName, adopterName, startDate, endDate, adoption -> {
+            writer.write(adoption);
+            rowCount[0]++;
+        });
+        writer.flush();
+        log.info("Exported {} adoptions as {}", rowCount[0], format);
+    }
+
+    private <T> ExportWriter<T> open(ExportFormat format, Map<String, Function<T, Object>> columns,
+                                     OutputStream outputStream) {
+        Objects.requireNonNull(format, "Export format cannot be null");
+        Objects.requireNonNull(outputStream, "Output stream cannot be null");
+
+        ExportWriter<T> writer = new ExportWriter<>(format, objectMapper, columns, outputStream);
+        writer.writeHeader();
+        return writer;
+    }
+
+    private static Function<Adopter, Object> addressField(Function<Address, Object> field) {
+        return adopter -> adopter.getAddress() != null ? field.apply(adopter.getAddress()) : null;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.ImageBlob;
+import br.com.udesc.turma_do_gatil_back.repositories.ImageBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageBlobService {
+
+    private final ImageBlobRepository imageBlobRepository;
+
+    /** Blob com o mesmo conteúdo, já marcado como recém-usado para não ser coletado */
+    @Transactional
+    public Optional<ImageBlob> reuse(String digest) {
+        Objects.requireNonNull(digest, "Digest cannot be null");
+        Optional<ImageBlob> blob = imageBlobRepository.findById(digest);
+        blob.ifPresent(existing -> imageBlobRepository.touch(digest));
+        return blob;
+    }
+
+    /**
+     * Registra o objeto enviado. Se outro upload do mesmo conteúdo registrou antes, retorna o blob dele
+     * e o chamador deve descartar o próprio objeto.
+     */
+    @Transactional
+    public ImageBlob register(String digest, String objectKey, String contentType, long sizeBytes) {
+        Objects.requireNonNull(digest, "Digest cannot be null");
+        Objects.requireNonNull(objectKey, "Object key cannot be null");
+
+        if (imageBlobRepository.insertIfAbsent(digest, objectKey, contentType, sizeBytes) == 0) {
+            imageBlobRepository.touch(digest);
+        }
+        return imageBlobRepository.findById(digest)
+                .orElseThrow(() -> new IllegalStateException("Image blob not found after insert: " + digest));
+    }
+
+    /**
+     * Recalcula as referências e remove do registro os blobs sem referência desde {@code cutoff}.
+     * Retorna os removidos para que os objetos sejam apagados do bucket depois do commit.
+     */
+    @Transactional
+    public List<ImageBlob> removeUnreferenced(LocalDateTime cutoff, int limit) {
+        imageBlobRepository.recountReferences();
+
+        List<ImageBlob> removed = new ArrayList<>();
+        for (ImageBlob blob : imageBlobRepository.findUnreferencedBefore(cutoff, limit)) {
+            if (imageBlobRepository.deleteIfUnreferenced(blob.getDigest(), cutoff) > 0) {
+                removed.add(blob);
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.ImageBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Apaga do bucket as imagens deduplicadas que nenhum gato ou adoção referencia mais.
+ * O período de carência protege uploads recentes que ainda não foram vinculados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageGarbageCollectionService {
+
+    private final ImageBlobService imageBlobService;
+    private final S3Service s3Service;
+
+    @Value("${images.gc.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${images.gc.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${images.gc.cron:0 0 4 * * *}")
+    public void collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(gracePeriodHours);
+
+        // O registro sai antes do objeto: uma falha no S3 deixa só um objeto órfão, nunca um registro sem objeto
+        List<ImageBlob> removed = imageBlobService.removeUnreferenced(cutoff, batchSize);
+        int deletedCount = 0;
+        for (ImageBlob blob : removed) {
+            try {
+                s3Service.deleteImage(blob.getObjectKey());
+                deletedCount++;
+            } catch (RuntimeException e) {
+                log.error("Failed to delete unreferenced image {} from S3: {}", blob.getObjectKey(), e.getMessage());
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            log.info("Image garbage collection removed {} of {} unreferenced images", deletedCount, removed.size());
+        } else {
+            log.debug("Image garbage collection found no unreferenced images");
+        }
+    }
+}
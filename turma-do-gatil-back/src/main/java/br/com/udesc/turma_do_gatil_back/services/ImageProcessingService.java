@@ -0,0 +1,514 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.enums.ImageVariant;
+import br.com.udesc.turma_do_gatil_back.exceptions.UploadQueueFullException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera as variantes das imagens enviadas (miniatura e larguras responsivas) em JPEG.
+ * A decodificação é a etapa mais cara em CPU e memória, então roda em um pool próprio com fila limitada;
+ * com a fila cheia o envio é recusado ({@link UploadQueueFullException}).
+ * As variantes são recodificadas sem metadados: EXIF (localização, câmera) não chega nelas,
+ * e a orientação do EXIF é aplicada nos pixels antes de ser descartada. O original guardado passa por
+ * {@link #stripMetadata(byte[])}, que remove os mesmos metadados sem recodificar.
+ */
+@Slf4j
+@Service
+public class ImageProcessingService {
+
+    // Formatos que o ImageIO do JDK consegue decodificar; WebP fica só com o original
+    private static final List<String> SUPPORTED_CONTENT_TYPES = Arrays.asList(
+            "image/jpeg",
+            "image/jpg",
+            "image/png",
+            "image/gif"
+    );
+
+    // Evita alocar imagens gigantes a partir de arquivos pequenos e muito comprimidos
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "eXIf");
+
+    private static final int LARGEST_WIDTH = Arrays.stream(ImageVariant.values())
+            .mapToInt(ImageVariant::getWidth)
+            .max()
+            .orElseThrow();
+
+    private final ThreadPoolExecutor workers;
+    private final int queueCapacity;
+    private final float jpegQuality;
+
+    public ImageProcessingService(@Value("${images.processing.workers:2}") int workerCount,
+                                  @Value("${images.processing.queue-capacity:16}") int queueCapacity,
+                                  @Value("${images.processing.jpeg-quality:0.82}") float jpegQuality) {
+        this.queueCapacity = queueCapacity;
+        this.jpegQuality = jpegQuality;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-processing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public boolean supports(String contentType) {
+        return contentType != null && SUPPORTED_CONTENT_TYPES.contains(contentType.toLowerCase());
+    }
+
+    /**
+     * Enfileira a geração das variantes. O futuro falha com {@link IllegalArgumentException}
+     * se o conteúdo não for uma imagem válida.
+     *
+     * @param content lê a imagem original; chamado só quando o processamento começa
+     * @throws UploadQueueFullException se a fila de processamento estiver cheia
+     */
+    public CompletableFuture<Map<ImageVariant, byte[]>> generateVariants(Callable<byte[]> content) {
+        try {
+            return CompletableFuture.supplyAsync(() -> render(content), workers);
+        } catch (RejectedExecutionException e) {
+            throw new UploadQueueFullException(queueCapacity);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private Map<ImageVariant, byte[]> render(Callable<byte[]> content) {
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = content.call();
+            BufferedImage image = normalize(decode(bytes), readExifOrientation(bytes));
+
+            Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+            for (ImageVariant variant : ImageVariant.values()) {
+                variants.put(variant, encodeJpeg(resize(image, variant)));
+            }
+
+            log.debug("Generated {} image variants in {} ms", variants.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return variants;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Decodifica com subamostragem: a imagem é lida com no mínimo o dobro da maior variante,
+     * sem carregar todos os pixels de uma foto de câmera.
+     */
+    private BufferedImage decode(byte[] bytes) throws IOException {
+        // Streams em memória: ImageIO.createImageInputStream usaria arquivos temporários como cache
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("O arquivo não é uma imagem válida");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IllegalArgumentException("A imagem tem dimensões muito grandes");
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * LARGEST_WIDTH));
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                BufferedImage image = reader.read(0, param);
+                if (image == null) {
+                    throw new IllegalArgumentException("O arquivo não é uma imagem válida");
+                }
+                return image;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("O arquivo não é uma imagem válida");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Aplica a orientação do EXIF e achata a transparência sobre fundo branco, já que JPEG não tem canal alfa */
+    private static BufferedImage normalize(BufferedImage source, int orientation) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean swapsAxes = orientation >= 5 && orientation <= 8;
+
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> new AffineTransform();
+        };
+
+        BufferedImage target = new BufferedImage(swapsAxes ? height : width, swapsAxes ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /** Nunca amplia: imagens menores que a variante mantêm o tamanho original */
+    private static BufferedImage resize(BufferedImage image, ImageVariant variant) {
+        BufferedImage source = image;
+        if (variant.isSquare()) {
+            int side = Math.min(image.getWidth(), image.getHeight());
+            source = image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        }
+
+        int width = Math.min(variant.getWidth(), source.getWidth());
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+
+        // Reduções grandes em um passo só serrilham: reduz pela metade até chegar perto do tamanho final
+        while (source.getWidth() / 2 >= width) {
+            source = scale(source, source.getWidth() / 2, Math.max(1, source.getHeight() / 2));
+        }
+        return source.getWidth() == width && source.getHeight() == height ? source : scale(source, width, height);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /** Sem metadados no IIOImage o writer grava só o cabeçalho JFIF */
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Remove do original os metadados que podem identificar quem tirou a foto, sem recodificar os pixels:
+     * em JPEG os segmentos APP1 (EXIF, XMP), APP3 a APP13 e APP15 (IPTC, Photoshop...) e comentários;
+     * em PNG os chunks de texto e o eXIf; em WebP os chunks EXIF e XMP. Dados depois do fim da imagem
+     * (vídeo de "foto com movimento", por exemplo) também saem. A orientação do JPEG é mantida em um EXIF
+     * mínimo, só com essa tag, para a foto não aparecer deitada no navegador.
+     * Devolve o próprio array quando não há nada a remover, inclusive para GIF.
+     *
+     * @throws IllegalArgumentException se a estrutura do arquivo estiver corrompida
+     */
+    public static byte[] stripMetadata(byte[] bytes) {
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return stripJpeg(bytes);
+        }
+        if (bytes.length >= PNG_SIGNATURE.length && Arrays.equals(bytes, 0, PNG_SIGNATURE.length, PNG_SIGNATURE, 0, PNG_SIGNATURE.length)) {
+            return stripPng(bytes);
+        }
+        if (bytes.length >= 12 && ascii(bytes, 0, 4).equals("RIFF") && ascii(bytes, 8, 4).equals("WEBP")) {
+            return stripWebp(bytes);
+        }
+        return bytes;
+    }
+
+    private static byte[] stripJpeg(byte[] bytes) {
+        int orientation = readExifOrientation(bytes);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length);
+        output.write(bytes, 0, 2);
+        boolean removed = false;
+        boolean orientationKept = orientation == 1;
+
+        int offset = 2;
+        while (true) {
+            if (offset + 2 > bytes.length || (bytes[offset] & 0xFF) != 0xFF) {
+                throw invalidImage();
+            }
+            int marker = bytes[offset + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Bytes de preenchimento entre segmentos
+                offset++;
+                continue;
+            }
+            if (marker == 0xD9) {
+                output.write(bytes, offset, 2);
+                removed |= offset + 2 < bytes.length;
+                break;
+            }
+            if ((marker >= 0xD0 && marker <= 0xD7) || marker == 0x01) {
+                output.write(bytes, offset, 2);
+                offset += 2;
+                continue;
+            }
+
+            if (offset + 4 > bytes.length) {
+                throw invalidImage();
+            }
+            int end = offset + 2 + readShort(bytes, offset + 2, false);
+            if (end < offset + 4 || end > bytes.length) {
+                throw invalidImage();
+            }
+
+            if (isJpegMetadata(bytes, marker, offset + 4, end)) {
+                removed = true;
+                if (!orientationKept) {
+                    output.writeBytes(orientationSegment(orientation));
+                    orientationKept = true;
+                }
+            } else {
+                output.write(bytes, offset, end - offset);
+            }
+            offset = end;
+
+            if (marker == 0xDA) {
+                // Dados comprimidos vão até o próximo marcador que não seja byte escapado (FF00) nem RSTn
+                int scanEnd = offset;
+                while (scanEnd + 1 < bytes.length && ((bytes[scanEnd] & 0xFF) != 0xFF
+                        || (bytes[scanEnd + 1] & 0xFF) == 0x00 || ((bytes[scanEnd + 1] & 0xFF) >= 0xD0 && (bytes[scanEnd + 1] & 0xFF) <= 0xD7))) {
+                    scanEnd++;
+                }
+                if (scanEnd + 1 >= bytes.length) {
+                    throw invalidImage();
+                }
+                output.write(bytes, offset, scanEnd - offset);
+                offset = scanEnd;
+            }
+        }
+        return removed ? output.toByteArray() : bytes;
+    }
+
+    /** APP0 (JFIF), APP2 com perfil ICC e APP14 (Adobe) afetam as cores e ficam; os demais APPn e comentários saem */
+    private static boolean isJpegMetadata(byte[] bytes, int marker, int data, int end) {
+        if (marker == 0xE2) {
+            return end - data < 12 || !ascii(bytes, data, 12).equals("ICC_PROFILE\0");
+        }
+        return marker == 0xFE || (marker >= 0xE1 && marker <= 0xEF && marker != 0xEE);
+    }
+
+    /** Segmento APP1 com um EXIF big-endian de uma única tag, Orientation */
+    private static byte[] orientationSegment(int orientation) {
+        return new byte[]{
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 0x2A, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+    }
+
+    private static byte[] stripPng(byte[] bytes) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length);
+        output.write(bytes, 0, PNG_SIGNATURE.length);
+        boolean removed = false;
+
+        int offset = PNG_SIGNATURE.length;
+        while (true) {
+            if (offset + 12 > bytes.length) {
+                throw invalidImage();
+            }
+            // Tamanho, tipo, dados e CRC
+            long end = offset + 12 + readInt(bytes, offset, false);
+            if (end > bytes.length) {
+                throw invalidImage();
+            }
+            String type = ascii(bytes, offset + 4, 4);
+            if (PNG_METADATA_CHUNKS.contains(type)) {
+                removed = true;
+            } else {
+                output.write(bytes, offset, (int) end - offset);
+            }
+            offset = (int) end;
+
+            if (type.equals("IEND")) {
+                removed |= offset < bytes.length;
+                break;
+            }
+        }
+        return removed ? output.toByteArray() : bytes;
+    }
+
+    private static byte[] stripWebp(byte[] bytes) {
+        long riffEnd = 8 + readInt(bytes, 4, true);
+        if (riffEnd > bytes.length) {
+            throw invalidImage();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length);
+        output.write(bytes, 0, 12);
+        boolean removed = riffEnd < bytes.length;
+        int extendedHeader = -1;
+
+        int offset = 12;
+        while (offset < riffEnd) {
+            if (offset + 8 > riffEnd) {
+                throw invalidImage();
+            }
+            String type = ascii(bytes, offset, 4);
+            long size = readInt(bytes, offset + 4, true);
+            // Chunks de tamanho ímpar têm um byte de alinhamento
+            long end = Math.min(riffEnd, offset + 8 + size + (size & 1));
+            if (offset + 8 + size > riffEnd) {
+                throw invalidImage();
+            }
+            if (type.equals("EXIF") || type.equals("XMP ")) {
+                removed = true;
+            } else {
+                if (type.equals("VP8X")) {
+                    extendedHeader = output.size();
+                }
+                output.write(bytes, offset, (int) end - offset);
+            }
+            offset = (int) end;
+        }
+        if (!removed) {
+            return bytes;
+        }
+
+        byte[] stripped = output.toByteArray();
+        int riffSize = stripped.length - 8;
+        for (int i = 0; i < 4; i++) {
+            stripped[4 + i] = (byte) (riffSize >>> (8 * i));
+        }
+        if (extendedHeader >= 0 && extendedHeader + 8 < stripped.length) {
+            // Flags do VP8X: os bits de EXIF (0x08) e XMP (0x04) não podem anunciar chunks que saíram
+            stripped[extendedHeader + 8] &= (byte) ~0x0C;
+        }
+        return stripped;
+    }
+
+    private static String ascii(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    private static IllegalArgumentException invalidImage() {
+        return new IllegalArgumentException("O arquivo não é uma imagem válida");
+    }
+
+    /**
+     * Lê a tag Orientation (0x0112) do segmento APP1/Exif de um JPEG. O ImageIO ignora essa tag,
+     * e fotos de celular costumam vir deitadas com a rotação só no EXIF. Retorna 1 (normal) na ausência da tag.
+     */
+    private static int readExifOrientation(byte[] bytes) {
+        if (bytes.length < 4 || (bytes[0] & 0xFF) != 0xFF || (bytes[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+
+        int offset = 2;
+        while (offset + 4 <= bytes.length && (bytes[offset] & 0xFF) == 0xFF) {
+            int marker = bytes[offset + 1] & 0xFF;
+            int length = readShort(bytes, offset + 2, false);
+            // Início dos dados da imagem: não há mais segmentos de metadados
+            if (marker == 0xDA || length < 2) {
+                return 1;
+            }
+
+            int segment = offset + 4;
+            if (marker == 0xE1 && segment + 14 <= bytes.length
+                    && new String(bytes, segment, 4, StandardCharsets.US_ASCII).equals("Exif")) {
+                return readTiffOrientation(bytes, segment + 6, Math.min(bytes.length, offset + 2 + length));
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int readTiffOrientation(byte[] bytes, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = bytes[tiff] == 'I' && bytes[tiff + 1] == 'I';
+        long ifd = tiff + readInt(bytes, tiff + 4, littleEndian);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+
+        int entries = readShort(bytes, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readShort(bytes, entry, littleEndian) == 0x0112) {
+                int orientation = readShort(bytes, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] bytes, int offset, boolean littleEndian) {
+        int first = bytes[offset] & 0xFF;
+        int second = bytes[offset + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+
+    private static long readInt(byte[] bytes, int offset, boolean littleEndian) {
+        long high = readShort(bytes, offset, littleEndian);
+        long low = readShort(bytes, offset + 2, littleEndian);
+        return littleEndian ? (low << 16) | high : (high << 16) | low;
+    }
+}
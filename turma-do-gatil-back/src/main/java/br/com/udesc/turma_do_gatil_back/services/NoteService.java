@@ -1,18 +1,26 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
+import br.com.udesc.turma_do_gatil_back.dto.NoteDto;
 import br.com.udesc.turma_do_gatil_back.entities.Note;
 import br.com.udesc.turma_do_gatil_back.exceptions.NoteNotFoundException;
+import br.com.udesc.turma_do_gatil_back.repositories.BulkWriteRepository;
 import br.com.udesc.turma_do_gatil_back.repositories.NoteRepository;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -21,14 +29,15 @@ import java.util.UUID;
 public class NoteService {
 
     private final NoteRepository noteRepository;
-    private final SecurityService securityService;
 
+    @Transactional(readOnly = true)
     public Page<Note> findAll(Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding all notes with pageable: {}", pageable);
         return noteRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Note> findById(UUID id) {
         Objects.requireNonNull(id, "ID cannot be null");
         log.debug("Finding note by id: {}", id);
@@ -45,6 +54,23 @@ public class NoteService {
         return savedNote;
     }
 
+    @Transactional
+    public List<Note> saveAll(List<Note> notes) {
+        Objects.requireNonNull(notes, "Notes cannot be null");
+        BulkWriteRepository.validateBatchSize(notes.size());
+        notes.forEach(note -> {
+            Objects.requireNonNull(note, "Note cannot be null");
+            validateNote(note);
+            note.setId(null);
+        });
+
+        log.info("Saving batch of {} notes", notes.size());
+        List<Note> savedNotes = noteRepository.persistAll(notes);
+        log.debug("Batch of {} notes saved", savedNotes.size());
+        return savedNotes;
+    }
+
+    @Transactional
     public Note update(UUID id, Note note) {
         Objects.requireNonNull(id, "ID cannot be null");
         Objects.requireNonNull(note, "Note cannot be null");
@@ -52,35 +78,69 @@ public class NoteService {
 
         log.info("Updating note with id: {}", id);
 
-        if (!existsById(id)) {
-            throw new NoteNotFoundException(id);
-        }
+        Note current = noteRepository.findById(id)
+                .orElseThrow(() -> new NoteNotFoundException(id));
+        current.checkVersion(note.getVersion());
 
         note.setId(id);
+        note.setVersion(current.getVersion());
         Note updatedNote = noteRepository.save(note);
         log.debug("Note updated successfully: {}", id);
         return updatedNote;
     }
 
-    public void deleteById(UUID id) {
+    @Transactional
+    public List<Note> updateAll(List<Note> notes) {
+        Objects.requireNonNull(notes, "Notes cannot be null");
+        BulkWriteRepository.validateBatchSize(notes.size());
+
+        Set<UUID> ids = new HashSet<>();
+        notes.forEach(note -> {
+            Objects.requireNonNull(note, "Note cannot be null");
+            Objects.requireNonNull(note.getId(), "ID cannot be null");
+            validateNote(note);
+            if (!ids.add(note.getId())) {
+                throw new IllegalArgumentException("Duplicate note ID in batch: " + note.getId());
+            }
+        });
+
+        log.info("Updating batch of {} notes", notes.size());
+
+        Set<UUID> existingIds = new HashSet<>(noteRepository.findExistingIds(ids));
+        ids.stream()
+                .filter(id -> !existingIds.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new NoteNotFoundException(id);
+                });
+
+        List<Note> updatedNotes = noteRepository.mergeAll(notes);
+        log.debug("Batch of {} notes updated", updatedNotes.size());
+        return updatedNotes;
+    }
+
+    @Transactional
+    public void deleteById(UUID id, Long expectedVersion) {
         Objects.requireNonNull(id, "ID cannot be null");
         log.info("Deleting note with id: {}", id);
 
         Note note = noteRepository.findById(id)
                 .orElseThrow(() -> new NoteNotFoundException(id));
+        note.checkVersion(expectedVersion);
 
-        note.setDeletedBy(securityService.getCurrentUsername());
         noteRepository.delete(note);
         log.debug("Note soft deleted successfully: {}", id);
     }
 
-    public Page<Note> findByCatId(UUID catId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<NoteDto> findByCatId(UUID catId, Pageable pageable) {
         Objects.requireNonNull(catId, "Cat ID cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding notes by cat id: {}", catId);
         return noteRepository.findByCatId(catId, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Note> findByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         Objects.requireNonNull(startDate, "Start date cannot be null");
         Objects.requireNonNull(endDate, "End date cannot be null");
@@ -91,6 +151,7 @@ public class NoteService {
         return noteRepository.findByDateBetween(startDate, endDate, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Note> findByTextContaining(String text, Pageable pageable) {
         Objects.requireNonNull(text, "Text cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
@@ -98,8 +159,9 @@ public class NoteService {
         return noteRepository.findByTextContainingIgnoreCase(text, pageable);
     }
 
-    public Page<Note> findWithFilters(UUID catId, String text, LocalDateTime startDate,
-                                      LocalDateTime endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<NoteDto> findWithFilters(UUID catId, String text, LocalDateTime startDate,
+                                         LocalDateTime endDate, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         if (startDate != null && endDate != null) {
@@ -111,8 +173,33 @@ public class NoteService {
         return noteRepository.findWithFilters(catId, text, startDate, endDate, pageable);
     }
 
-    private boolean existsById(UUID id) {
-        return noteRepository.existsById(id);
+    @Transactional(readOnly = true)
+    public Slice<NoteDto> findSliceWithFilters(UUID catId, String text, LocalDateTime startDate,
+                                               LocalDateTime endDate, Pageable pageable) {
+        Objects.requireNonNull(pageable, "Pageable cannot be null");
+
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+
+        log.debug("Finding note slice with filters - catId: {}, text: {}, dateRange: {} to {}",
+                catId, text, startDate, endDate);
+        return noteRepository.findSliceWithFilters(catId, text, startDate, endDate, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<NoteDto> scrollWithFilters(UUID catId, String text, LocalDateTime startDate,
+                                            LocalDateTime endDate, String cursor, int size) {
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+
+        KeysetCursor.validateSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        log.debug("Scrolling notes with filters - catId: {}, text: {}, dateRange: {} to {}, after: {}",
+                catId, text, startDate, endDate, after != null ? after.getId() : null);
+        return noteRepository.scrollWithFilters(catId, text, startDate, endDate,
+                after != null ? after.keyAsDateTime() : null, after != null ? after.getId() : null, size);
     }
 
     private void validateNote(Note note) {
@@ -0,0 +1,61 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.User;
+import br.com.udesc.turma_do_gatil_back.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Usuários autenticados pelo JWT, em cache limitado por tamanho e com expiração,
+ * para que cada requisição não precise buscar o usuário no banco.
+ */
+@Slf4j
+@Service
+public class PrincipalCacheService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> principals;
+
+    private final TransactionSynchronization invalidateAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            principals.invalidateAll();
+        }
+    };
+
+    public PrincipalCacheService(UserRepository userRepository,
+                                 @Value("${security.principal-cache.max-size:1000}") long maxSize,
+                                 @Value("${security.principal-cache.ttl-ms:300000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    public User loadByUsername(String username) {
+        return principals.get(username, key -> userRepository.findByUsername(key)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + key)));
+    }
+
+    /**
+     * Descarta todos os usuários em cache. O username pode ter mudado, então não há uma chave
+     * segura para remover; dentro de uma transação, descarta de novo após o commit.
+     */
+    public void invalidate() {
+        principals.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.getSynchronizations().contains(invalidateAfterCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(invalidateAfterCommit);
+        }
+        log.debug("Principal cache invalidated");
+    }
+}
@@ -2,34 +2,111 @@ package br.com.udesc.turma_do_gatil_back.services;
 
 import br.com.udesc.turma_do_gatil_back.entities.Properties;
 import br.com.udesc.turma_do_gatil_back.repositories.PropertiesRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PropertiesService {
 
+    public static final String STERILIZATION_MIN_DAYS = "sterilizationMinDays";
+    public static final String STERILIZATION_MAX_DAYS = "sterilizationMaxDays";
+
+    private static final int DEFAULT_MINIMUM_STERILIZATION_AGE_DAYS = 90;
+    private static final int DEFAULT_OVERDUE_STERILIZATION_AGE_DAYS = 180;
+
     private final PropertiesRepository propertiesRepository;
 
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /** Recarrega o snapshot uma única vez por transação, somente após o commit */
+    private final TransactionSynchronization reloadAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            reload();
+        }
+    };
+
+    @PostConstruct
+    public void reload() {
+        // A versão é lida antes dos valores: uma alteração concorrente só provoca um recarregamento a mais
+        long fingerprint = propertiesRepository.fingerprint();
+        Map<String, String> values = propertiesRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Properties::getKey, Properties::getValue));
+        snapshot.set(new Snapshot(values, fingerprint));
+        log.debug("Properties snapshot loaded with {} entries", values.size());
+    }
+
+    /**
+     * Mantém os nós em sincronia: outra instância que alterou a tabela muda a soma das versões.
+     */
+    @Scheduled(fixedDelayString = "${properties.cache.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        if (propertiesRepository.fingerprint() != snapshot.get().fingerprint) {
+            log.info("Properties changed in database, reloading snapshot");
+            reload();
+        }
+    }
+
     public String getProperty(String key) {
-        return propertiesRepository.findById(key).map(Properties::getValue).orElse(null);
+        return snapshot.get().values.get(key);
     }
 
+    @Transactional
     public void setProperty(String key, String value) {
         Properties prop = propertiesRepository.findById(key)
                 .orElseGet(Properties::new);
         prop.setKey(key);
         prop.setValue(value);
         propertiesRepository.save(prop);
+
+        if (!TransactionSynchronizationManager.getSynchronizations().contains(reloadAfterCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(reloadAfterCommit);
+        }
     }
 
     public int getMinimumSterilizationAgeDays() {
-        String value = getProperty("sterilizationMinDays");
-        return value != null ? Integer.parseInt(value) : 90;
+        return snapshot.get().minimumSterilizationAgeDays;
     }
 
     public int getOverdueSterilizationAgeDays() {
-        String value = getProperty("sterilizationMaxDays");
-        return value != null ? Integer.parseInt(value) : 180;
+        return snapshot.get().overdueSterilizationAgeDays;
+    }
+
+    private static final class Snapshot {
+        private final Map<String, String> values;
+        private final long fingerprint;
+        private final int minimumSterilizationAgeDays;
+        private final int overdueSterilizationAgeDays;
+
+        private Snapshot(Map<String, String> values, long fingerprint) {
+            this.values = values;
+            this.fingerprint = fingerprint;
+            this.minimumSterilizationAgeDays = parseInt(values.get(STERILIZATION_MIN_DAYS), DEFAULT_MINIMUM_STERILIZATION_AGE_DAYS);
+            this.overdueSterilizationAgeDays = parseInt(values.get(STERILIZATION_MAX_DAYS), DEFAULT_OVERDUE_STERILIZATION_AGE_DAYS);
+        }
+
+        private static int parseInt(String value, int defaultValue) {
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                log.warn("Invalid integer property value '{}', using default {}", value, defaultValue);
+                return defaultValue;
+            }
+        }
     }
 }
@@ -1,5 +1,11 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
+import br.com.udesc.turma_do_gatil_back.dto.ImageUploadResponseDto;
+import br.com.udesc.turma_do_gatil_back.dto.ImageUploadStatsDto;
+import br.com.udesc.turma_do_gatil_back.dto.PresignedUploadDto;
+import br.com.udesc.turma_do_gatil_back.entities.ImageBlob;
+import br.com.udesc.turma_do_gatil_back.enums.ImageVariant;
+import br.com.udesc.turma_do_gatil_back.exceptions.UploadQueueFullException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,23 +13,64 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class S3Service {
 
+    private final S3UploadPipeline uploadPipeline;
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final ImageProcessingService imageProcessingService;
+    private final ImageBlobService imageBlobService;
 
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
 
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.presign.expiration-seconds:600}")
+    private long presignExpirationSeconds;
+
+    @Value("${aws.s3.upload.part-size-bytes:5242880}")
+    private int partSize;
+
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
             "image/jpeg",
             "image/jpg",
@@ -34,46 +81,436 @@ public class S3Service {
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
-    public String uploadImage(MultipartFile file) throws IOException {
-        validateImage(file);
+    // Bytes suficientes para a maior assinatura verificada (RIFF....WEBP)
+    private static final int SNIFF_LENGTH = 12;
+
+    // Só chaves geradas por generateUniqueFileName podem ser confirmadas
+    private static final Pattern UPLOAD_KEY = Pattern.compile(
+            "images/[0-9a-f-]{36}(/" + ImageVariant.ORIGINAL_NAME + ")?(\\.[A-Za-z0-9]{1,10})?");
+
+    /**
+     * Valida a imagem e a envia pelo pipeline assíncrono. Formatos suportados pelo processamento são
+     * decodificados antes do envio e vão junto com as variantes; o original vai sem metadados (EXIF, XMP).
+     * O futuro completa com a URL pública do original, e o tipo detectado pelo conteúdo, quando todos
+     * os objetos estiverem no bucket.
+     * Conteúdo já enviado antes (mesmo SHA-256) não é reenviado: a URL existente é devolvida.
+     *
+     * @throws IllegalArgumentException se o arquivo for inválido
+     * @throws UploadQueueFullException se houver envios demais aguardando
+     */
+    public CompletableFuture<ImageUploadResponseDto> uploadImage(MultipartFile file) {
+        String contentType = validateImage(file);
+
+        String digest;
+        try (InputStream input = file.getInputStream()) {
+            digest = digest(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Optional<ImageBlob> existing = imageBlobService.reuse(digest);
+        if (existing.isPresent()) {
+            log.info("Conteúdo de {} já existe no S3 como {}", file.getOriginalFilename(), existing.get().getObjectKey());
+            return CompletableFuture.completedFuture(toResponse(file.getOriginalFilename(), existing.get()));
+        }
+
+        boolean withVariants = imageProcessingService.supports(contentType);
+        String key = generateUniqueFileName(file.getOriginalFilename(), withVariants);
+
+        AtomicLong storedSize = new AtomicLong(file.getSize());
+        Callable<byte[]> original = () -> {
+            byte[] stripped = ImageProcessingService.stripMetadata(file.getBytes());
+            storedSize.set(stripped.length);
+            return stripped;
+        };
+
+        CompletableFuture<Void> upload = withVariants
+                ? imageProcessingService.generateVariants(file::getBytes)
+                        .thenCompose(variants -> CompletableFuture.allOf(
+                                uploadPipeline.upload(bucketName, key, contentType, original),
+                                storeVariants(key, variants)))
+                : uploadPipeline.upload(bucketName, key, contentType, original);
+
+        return upload
+                .thenApply(ignored -> {
+                    log.info("Arquivo {} enviado com sucesso para o S3", key);
+
+                    return registerBlob(digest, key, contentType, storedSize.get(), file.getOriginalFilename());
+                });
+    }
+
+    /**
+     * Envia o corpo da requisição direto para o S3, sem multipart: nada vai para disco e só um buffer
+     * de cabeçalho (ou uma parte, sem Content-Length) fica em memória. O tipo vem dos primeiros bytes,
+     * não do cabeçalho do cliente, e o limite de tamanho é verificado durante a leitura.
+     * O envio ocupa uma vaga do {@link S3UploadPipeline} e roda na thread da requisição, que é quem lê o corpo;
+     * sem vaga livre é recusado antes de ler. O SHA-256 é calculado durante o envio; se o conteúdo já existia,
+     * o objeto novo é apagado e a URL existente é devolvida. Como no upload pré-assinado, as variantes são
+     * geradas a partir do objeto já gravado, que depois é regravado sem metadados.
+     *
+     * @param contentLength tamanho declarado, ou -1 se o corpo vier em chunks
+     * @throws IllegalArgumentException se o conteúdo for vazio, grande demais ou de tipo não permitido
+     * @throws UploadQueueFullException se todas as vagas de envio estiverem ocupadas
+     */
+    public CompletableFuture<ImageUploadResponseDto> uploadImageStream(InputStream body, String fileName,
+                                                                       long contentLength) throws IOException {
+        if (contentLength > MAX_FILE_SIZE) {
+            throw fileTooLarge();
+        }
+
+        BufferedInputStream buffered = new BufferedInputStream(body);
+        buffered.mark(SNIFF_LENGTH);
+        byte[] header = buffered.readNBytes(SNIFF_LENGTH);
+        buffered.reset();
+        if (header.length == 0 || contentLength == 0) {
+            throw new IllegalArgumentException("O arquivo não pode ser vazio");
+        }
+        String contentType = sniffContentType(header);
+
+        boolean withVariants = imageProcessingService.supports(contentType);
+        String key = generateUniqueFileName(fileName, withVariants);
+
+        DigestInputStream input = new DigestInputStream(buffered, sha256());
+        boolean multipart = contentLength < 0;
+        long size = uploadPipeline.transfer(multipart, () -> multipart
+                ? putInParts(key, contentType, input)
+                : putStream(key, contentType, input, contentLength));
+        log.info("Arquivo {} enviado em streaming para o S3 ({} bytes)", key, size);
+
+        String digest = HexFormat.of().formatHex(input.getMessageDigest().digest());
+        return storeOrReuse(digest, key, contentType, size, fileName);
+    }
+
+    /**
+     * Gera uma URL pré-assinada para o cliente enviar a imagem direto ao bucket. Tipo e tamanho
+     * entram na assinatura: um PUT com valores diferentes é recusado pelo S3.
+     */
+    public PresignedUploadDto presignUpload(String fileName, String contentType, long fileSize) {
+        validateImage(contentType, fileSize);
+
+        String key = generateUniqueFileName(fileName, imageProcessingService.supports(contentType));
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(fileSize)
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(builder -> builder
+                .signatureDuration(Duration.ofSeconds(presignExpirationSeconds))
+                .putObjectRequest(putObjectRequest));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+
+        log.info("URL de upload pré-assinada gerada para {}", key);
+        return new PresignedUploadDto(
+                key,
+                presigned.url().toString(),
+                presigned.httpRequest().method().name(),
+                headers,
+                LocalDateTime.ofInstant(presigned.expiration(), ZoneId.systemDefault()),
+                publicUrl(key)
+        );
+    }
+
+    /**
+     * Confirma um upload pré-assinado: o objeto precisa existir no bucket e respeitar as mesmas
+     * regras de tipo e tamanho do upload pela aplicação.
+     *
+     * @throws IllegalArgumentException se a chave for inválida ou o objeto não existir
+     */
+    public ImageUploadResponseDto verifyUpload(String key) {
+        if (key == null || !UPLOAD_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Chave de upload inválida");
+        }
+
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(builder -> builder.bucket(bucketName).key(key));
+        } catch (NoSuchKeyException e) {
+            throw new IllegalArgumentException("Arquivo não encontrado no bucket: " + key);
+        }
+
+        validateImage(head.contentType(), head.contentLength());
+
+        return new ImageUploadResponseDto(
+                key.substring(key.lastIndexOf('/') + 1),
+                publicUrl(key),
+                head.contentLength(),
+                head.contentType()
+        );
+    }
+
+    /**
+     * Confirma o upload pré-assinado: baixa o original, gera as variantes no bucket (se a chave seguir o
+     * formato com variantes) e regrava o original sem metadados antes de completar. Se o conteúdo já
+     * existia, o objeto enviado é apagado e a URL existente é devolvida.
+     */
+    public CompletableFuture<ImageUploadResponseDto> completeUpload(String key) {
+        ImageUploadResponseDto upload = verifyUpload(key);
+
+        // O conteúdo só é conhecido no bucket: o hash é calculado lendo o objeto em streaming
+        String digest;
+        try (InputStream input = s3Client.getObject(builder -> builder.bucket(bucketName).key(key))) {
+            digest = digest(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return storeOrReuse(digest, key, upload.getContentType(), upload.getFileSize(), upload.getFileName());
+    }
+
+    /** Apaga o objeto e as variantes dele */
+    public void deleteImage(String key) {
+        List<ObjectIdentifier> objects = new ArrayList<>();
+        objects.add(ObjectIdentifier.builder().key(key).build());
+        if (ImageVariant.hasVariants(key)) {
+            for (ImageVariant variant : ImageVariant.values()) {
+                objects.add(ObjectIdentifier.builder().key(variant.locate(key)).build());
+            }
+        }
+
+        s3Client.deleteObjects(builder -> builder
+                .bucket(bucketName)
+                .delete(delete -> delete.objects(objects).quiet(true)));
+        log.info("Imagem {} apagada do S3", key);
+    }
+
+    public ImageUploadStatsDto getUploadStats() {
+        return uploadPipeline.getStats();
+    }
+
+    /**
+     * Para um objeto já gravado: se o conteúdo existia, apaga o novo e devolve o existente;
+     * senão gera as variantes, remove os metadados e o registra. Se algo falhar a URL não é devolvida
+     * e o objeto é apagado.
+     */
+    private CompletableFuture<ImageUploadResponseDto> storeOrReuse(String digest, String key, String contentType,
+                                                                   long size, String fileName) {
+        Optional<ImageBlob> existing = imageBlobService.reuse(digest);
+        if (existing.isPresent()) {
+            // Confirmar duas vezes o mesmo upload pré-assinado encontra o próprio objeto
+            if (!existing.get().getObjectKey().equals(key)) {
+                log.info("Conteúdo de {} já existe no S3 como {}", key, existing.get().getObjectKey());
+                deleteImage(key);
+            }
+            return CompletableFuture.completedFuture(toResponse(fileName, existing.get()));
+        }
+
+        return processStored(key, contentType, size)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        deleteImage(key);
+                    }
+                })
+                .thenApply(storedSize -> registerBlob(digest, key, contentType, storedSize, fileName));
+    }
+
+    /** Se outro upload do mesmo conteúdo registrou antes, o objeto dele prevalece e o nosso é apagado */
+    private ImageUploadResponseDto registerBlob(String digest, String key, String contentType, long size,
+                                                String fileName) {
+        ImageBlob blob = imageBlobService.register(digest, key, contentType, size);
+        if (!blob.getObjectKey().equals(key)) {
+            deleteImage(key);
+        }
+        return toResponse(fileName, blob);
+    }
+
+    private ImageUploadResponseDto toResponse(String fileName, ImageBlob blob) {
+        return new ImageUploadResponseDto(fileName, publicUrl(blob.getObjectKey()), blob.getSizeBytes(), blob.getContentType());
+    }
+
+    /**
+     * Baixa o original já gravado no bucket, grava as variantes ao lado dele e, se o original tiver
+     * metadados, grava por cima a versão sem eles. O futuro completa com o tamanho final do original.
+     */
+    private CompletableFuture<Long> processStored(String key, String contentType, long size) {
+        if (!ImageVariant.hasVariants(key)) {
+            // Sem variantes (WebP) não há decodificação: o original é relido e regravado pelo próprio pipeline
+            AtomicLong storedSize = new AtomicLong(size);
+            return uploadPipeline.upload(bucketName, key, contentType, () -> {
+                        byte[] stripped = ImageProcessingService.stripMetadata(download(key));
+                        storedSize.set(stripped.length);
+                        return stripped;
+                    })
+                    .thenApply(ignored -> storedSize.get());
+        }
+
+        AtomicReference<byte[]> original = new AtomicReference<>();
+        return imageProcessingService.generateVariants(() -> {
+                    original.set(download(key));
+                    return original.get();
+                })
+                .thenCompose(variants -> {
+                    // O EXIF mínimo mantém a orientação: ler o objeto regravado daria as mesmas variantes
+                    byte[] stripped = ImageProcessingService.stripMetadata(original.get());
+                    CompletableFuture<Void> rewrite = stripped == original.get()
+                            ? CompletableFuture.completedFuture(null)
+                            : uploadPipeline.upload(bucketName, key, contentType, () -> stripped);
+                    return CompletableFuture.allOf(rewrite, storeVariants(key, variants))
+                            .thenApply(ignored -> {
+                                log.info("Variantes de {} geradas no S3", key);
+                                return (long) stripped.length;
+                            });
+                });
+    }
+
+    private byte[] download(String key) {
+        return s3Client.getObjectAsBytes(builder -> builder.bucket(bucketName).key(key)).asByteArray();
+    }
+
+    /** Com Content-Length conhecido o SDK lê o corpo aos poucos enquanto envia: um único PUT, sem cópia */
+    private long putStream(String key, String contentType, InputStream input, long contentLength) {
+        s3Client.putObject(builder -> builder
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength),
+                RequestBody.fromInputStream(input, contentLength));
+        return contentLength;
+    }
+
+    /**
+     * Sem Content-Length o tamanho só é conhecido no fim: o corpo vai em partes de multipart,
+     * com uma parte por vez em memória, e o upload é abortado se passar do limite.
+     */
+    private long putInParts(String key, String contentType, InputStream input) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(builder -> builder
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)).uploadId();
 
-        String key = generateUniqueFileName(file.getOriginalFilename());
-        
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[partSize];
+            long total = 0;
+            int read;
+            while ((read = input.readNBytes(buffer, 0, partSize)) > 0) {
+                total += read;
+                if (total > MAX_FILE_SIZE) {
+                    throw fileTooLarge();
+                }
+
+                int partNumber = parts.size() + 1;
+                String eTag = s3Client.uploadPart(builder -> builder
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            }
+
+            s3Client.completeMultipartUpload(builder -> builder
                     .bucket(bucketName)
                     .key(key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            s3Client.putObject(putObjectRequest, 
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+            return total;
+        } catch (RuntimeException | IOException e) {
+            s3Client.abortMultipartUpload(builder -> builder.bucket(bucketName).key(key).uploadId(uploadId));
+            throw e;
+        }
+    }
 
-            log.info("Arquivo {} enviado com sucesso para o S3", key);
-            
-            String url = "https://" + bucketName + ".s3.amazonaws.com/" + key;
-            log.debug("URL pública gerada: {}", url);
+    private CompletableFuture<Void> storeVariants(String originalKey, Map<ImageVariant, byte[]> variants) {
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        variants.forEach((variant, bytes) -> uploads.add(uploadPipeline.upload(
+                bucketName, variant.locate(originalKey), ImageVariant.CONTENT_TYPE, () -> bytes)));
+        return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new));
+    }
 
-            return url;
-        } catch (S3Exception e) {
-            log.error("Erro ao fazer upload do arquivo para o S3: {}", e.getMessage(), e);
-            throw new RuntimeException("Erro ao fazer upload da imagem: " + e.getMessage());
+    private String publicUrl(String key) {
+        if (endpoint != null && !endpoint.isBlank()) {
+            return endpoint.replaceAll("/+$", "") + "/" + bucketName + "/" + key;
         }
+        return "https://" + bucketName + ".s3.amazonaws.com/" + key;
     }
 
-    private void validateImage(MultipartFile file) {
+    /** Devolve o tipo detectado pelos primeiros bytes, que é o gravado no S3 */
+    private String validateImage(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("O arquivo não pode ser vazio");
         }
 
-        if (file.getSize() > MAX_FILE_SIZE) {
-            throw new IllegalArgumentException(
-                    String.format("O arquivo é muito grande. Tamanho máximo: %d MB", MAX_FILE_SIZE / (1024 * 1024))
-            );
+        validateImage(file.getContentType(), file.getSize());
+
+        try (InputStream input = file.getInputStream()) {
+            return sniffContentType(input.readNBytes(SNIFF_LENGTH));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Identifica o formato pela assinatura no início do arquivo.
+     *
+     * @throws IllegalArgumentException se não for um dos tipos permitidos
+     */
+    private static String sniffContentType(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8') && header.length >= 6
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        throw new IllegalArgumentException(
+                "O conteúdo do arquivo não corresponde a um tipo permitido. Permitidos: " + String.join(", ", ALLOWED_CONTENT_TYPES)
+        );
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... signature) {
+        if (bytes.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String digest(InputStream input) throws IOException {
+        DigestInputStream digesting = new DigestInputStream(input, sha256());
+        digesting.transferTo(OutputStream.nullOutputStream());
+        return HexFormat.of().formatHex(digesting.getMessageDigest().digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static IllegalArgumentException fileTooLarge() {
+        return new IllegalArgumentException(
+                String.format("O arquivo é muito grande. Tamanho máximo: %d MB", MAX_FILE_SIZE / (1024 * 1024))
+        );
+    }
+
+    private void validateImage(String contentType, long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("O arquivo não pode ser vazio");
+        }
+
+        if (size > MAX_FILE_SIZE) {
+            throw fileTooLarge();
         }
 
-        String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
             throw new IllegalArgumentException(
                     "Tipo de arquivo não permitido. Permitidos: " + String.join(", ", ALLOWED_CONTENT_TYPES)
@@ -81,11 +518,17 @@ public class S3Service {
         }
     }
 
-    private String generateUniqueFileName(String originalFileName) {
+    /** Com variantes o original fica em images/<uuid>/original.<ext>, e as variantes na mesma pasta */
+    private String generateUniqueFileName(String originalFileName, boolean withVariants) {
         String extension = "";
         if (originalFileName != null && originalFileName.contains(".")) {
             extension = originalFileName.substring(originalFileName.lastIndexOf("."));
         }
-        return "images/" + UUID.randomUUID().toString() + extension;
+        // A extensão vem do cliente: qualquer coisa além de letras e números é descartada
+        if (!extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+            extension = "";
+        }
+        String name = UUID.randomUUID().toString();
+        return "images/" + (withVariants ? name + "/" + ImageVariant.ORIGINAL_NAME : name) + extension;
     }
 }
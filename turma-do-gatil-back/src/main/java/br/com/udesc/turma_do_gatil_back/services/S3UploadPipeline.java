@@ -0,0 +1,310 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.dto.ImageUploadStatsDto;
+import br.com.udesc.turma_do_gatil_back.exceptions.UploadQueueFullException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envio assíncrono de objetos para o S3 com concorrência limitada.
+ * Até {@code max-concurrency} envios ficam ativos; os demais esperam em uma fila limitada e,
+ * com a fila cheia, novos envios são recusados ({@link UploadQueueFullException}) em vez de acumular.
+ * O conteúdo só é lido para memória quando o envio começa, então só os envios ativos ocupam heap.
+ * Os envios em streaming ({@link #transfer}) disputam as mesmas vagas, mas não entram na fila.
+ */
+@Slf4j
+@Service
+public class S3UploadPipeline {
+
+    public static final String UPLOAD_TIMER = "s3.uploads";
+
+    private final S3AsyncClient s3AsyncClient;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final long multipartThreshold;
+    private final int partSize;
+
+    private final Semaphore permits;
+    private final BlockingQueue<UploadJob> queue;
+    private final ExecutorService dispatcher;
+
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    private final AtomicLong completedUploads = new AtomicLong();
+    private final AtomicLong failedUploads = new AtomicLong();
+    private final AtomicLong rejectedUploads = new AtomicLong();
+
+    public S3UploadPipeline(S3AsyncClient s3AsyncClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${aws.s3.upload.max-concurrency:4}") int maxConcurrency,
+                            @Value("${aws.s3.upload.queue-capacity:32}") int queueCapacity,
+                            @Value("${aws.s3.upload.multipart-threshold-bytes:8388608}") long multipartThreshold,
+                            @Value("${aws.s3.upload.part-size-bytes:5242880}") int partSize) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = partSize;
+        this.permits = new Semaphore(maxConcurrency);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        // Lê o conteúdo e dispara o envio fora das threads do servlet e do cliente assíncrono
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("s3.uploads.queued", queue, BlockingQueue::size)
+                .description("Uploads waiting for a free slot")
+                .register(meterRegistry);
+        Gauge.builder("s3.uploads.active", activeUploads, AtomicInteger::get)
+                .description("Uploads currently being sent")
+                .register(meterRegistry);
+        Gauge.builder("s3.uploads.in.flight", bytesInFlight, AtomicLong::get)
+                .description("Bytes held in memory by active uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("s3.uploads.rejected", rejectedUploads, AtomicLong::get)
+                .description("Uploads refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira o envio. O futuro completa quando o objeto estiver gravado no bucket.
+     *
+     * @param content lê o conteúdo; chamado só quando o envio começa
+     * @throws UploadQueueFullException se a fila de espera estiver cheia
+     */
+    public CompletableFuture<Void> upload(String bucket, String key, String contentType, Callable<byte[]> content) {
+        UploadJob job = new UploadJob(bucket, key, contentType, content);
+        if (!queue.offer(job)) {
+            rejectedUploads.incrementAndGet();
+            throw new UploadQueueFullException(queueCapacity);
+        }
+        drain();
+        return job.result;
+    }
+
+    /**
+     * Executa na thread que chama um envio que lê o corpo da requisição direto para o S3 (streaming do
+     * {@link S3Service}), ocupando uma vaga do pipeline enquanto ele dura. O corpo não pode esperar
+     * na fila: sem vaga livre, ou com envios já aguardando, o envio é recusado na hora.
+     *
+     * @param multipart se o corpo vai em partes, cada uma em um buffer de {@code part-size-bytes}
+     * @throws UploadQueueFullException se não houver vaga livre
+     */
+    public <T> T transfer(boolean multipart, StreamTransfer<T> transfer) throws IOException {
+        if (!queue.isEmpty() || !permits.tryAcquire()) {
+            rejectedUploads.incrementAndGet();
+            throw new UploadQueueFullException(
+                    "Todos os " + maxConcurrency + " envios simultâneos estão ocupados. Tente novamente em instantes");
+        }
+
+        activeUploads.incrementAndGet();
+        long buffered = multipart ? partSize : 0;
+        bytesInFlight.addAndGet(buffered);
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = transfer.run();
+            success = true;
+            return result;
+        } finally {
+            recordUpload("stream", multipart, success, startNanos);
+            (success ? completedUploads : failedUploads).incrementAndGet();
+            bytesInFlight.addAndGet(-buffered);
+            activeUploads.decrementAndGet();
+            permits.release();
+            drain();
+        }
+    }
+
+    /** Registra a duração de um envio em {@value #UPLOAD_TIMER} */
+    private void recordUpload(String source, boolean multipart, boolean success, long startNanos) {
+        Timer.builder(UPLOAD_TIMER)
+                .description("Time to store an object in S3")
+                .tag("source", source)
+                .tag("multipart", String.valueOf(multipart))
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public ImageUploadStatsDto getStats() {
+        return new ImageUploadStatsDto(
+                queue.size(),
+                activeUploads.get(),
+                bytesInFlight.get(),
+                completedUploads.get(),
+                failedUploads.get(),
+                rejectedUploads.get(),
+                maxConcurrency,
+                queueCapacity
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    private void drain() {
+        while (permits.tryAcquire()) {
+            UploadJob job = queue.poll();
+            if (job == null) {
+                permits.release();
+                // Um job pode ter entrado entre o poll e o release
+                if (queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            dispatcher.execute(() -> start(job));
+        }
+    }
+
+    private void start(UploadJob job) {
+        activeUploads.incrementAndGet();
+        long[] buffered = {0};
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<Void> transfer;
+        try {
+            byte[] bytes = job.content.call();
+            buffered[0] = bytes.length;
+            bytesInFlight.addAndGet(bytes.length);
+            transfer = bytes.length > multipartThreshold ? putMultipart(job, bytes) : put(job, bytes);
+        } catch (Exception e) {
+            transfer = CompletableFuture.failedFuture(e);
+        }
+
+        transfer.whenComplete((ignored, error) -> {
+            recordUpload("pipeline", buffered[0] > multipartThreshold, error == null, startNanos);
+            bytesInFlight.addAndGet(-buffered[0]);
+            activeUploads.decrementAndGet();
+            permits.release();
+
+            if (error != null) {
+                failedUploads.incrementAndGet();
+                log.error("Upload of {} to S3 failed: {}", job.key, error.getMessage());
+                job.result.completeExceptionally(error);
+            } else {
+                completedUploads.incrementAndGet();
+                log.debug("Upload of {} to S3 completed ({} bytes)", job.key, buffered[0]);
+                job.result.complete(null);
+            }
+            drain();
+        });
+    }
+
+    private CompletableFuture<Void> put(UploadJob job, byte[] bytes) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(job.bucket)
+                .key(job.key)
+                .contentType(job.contentType)
+                .contentLength((long) bytes.length)
+                .build();
+
+        return s3AsyncClient.putObject(request, AsyncRequestBody.fromBytes(bytes))
+                .thenApply(response -> null);
+    }
+
+    /** Multipart para arquivos grandes: as partes são enviadas em paralelo e o upload é abortado em caso de erro */
+    private CompletableFuture<Void> putMultipart(UploadJob job, byte[] bytes) {
+        return s3AsyncClient.createMultipartUpload(builder -> builder
+                        .bucket(job.bucket)
+                        .key(job.key)
+                        .contentType(job.contentType))
+                .thenCompose(created -> {
+                    String uploadId = created.uploadId();
+                    List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+                    for (int offset = 0, partNumber = 1; offset < bytes.length; offset += partSize, partNumber++) {
+                        parts.add(uploadPart(job, uploadId, partNumber, bytes, offset));
+                    }
+
+                    return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                            .thenCompose(ignored -> s3AsyncClient.completeMultipartUpload(builder -> builder
+                                    .bucket(job.bucket)
+                                    .key(job.key)
+                                    .uploadId(uploadId)
+                                    .multipartUpload(CompletedMultipartUpload.builder()
+                                            .parts(parts.stream().map(CompletableFuture::join).toList())
+                                            .build())))
+                            .<Void>thenApply(response -> null)
+                            .whenComplete((ignored, error) -> {
+                                if (error != null) {
+                                    s3AsyncClient.abortMultipartUpload(builder -> builder
+                                            .bucket(job.bucket)
+                                            .key(job.key)
+                                            .uploadId(uploadId));
+                                }
+                            });
+                });
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(UploadJob job, String uploadId, int partNumber,
+                                                        byte[] bytes, int offset) {
+        int length = Math.min(partSize, bytes.length - offset);
+        return s3AsyncClient.uploadPart(builder -> builder
+                                .bucket(job.bucket)
+                                .key(job.key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length),
+                        AsyncRequestBody.fromByteBuffer(ByteBuffer.wrap(bytes, offset, length)))
+                .thenApply(response -> CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+    }
+
+    @FunctionalInterface
+    public interface StreamTransfer<T> {
+        T run() throws IOException;
+    }
+
+    private static final class UploadJob {
+        private final String bucket;
+        private final String key;
+        private final String contentType;
+        private final Callable<byte[]> content;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private UploadJob(String bucket, String key, String contentType, Callable<byte[]> content) {
+            this.bucket = bucket;
+            this.key = key;
+            this.contentType = contentType;
+            this.content = content;
+        }
+    }
+}
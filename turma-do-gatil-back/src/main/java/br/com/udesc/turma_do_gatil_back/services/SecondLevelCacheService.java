@@ -0,0 +1,42 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.config.SecondLevelCacheConfig;
+import br.com.udesc.turma_do_gatil_back.dto.CacheRegionStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SecondLevelCacheService {
+
+    private static final List<String> REGIONS = List.of(
+            SecondLevelCacheConfig.CATS_REGION,
+            SecondLevelCacheConfig.ADOPTERS_REGION,
+            SecondLevelCacheConfig.PROPERTIES_REGION);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /** Acertos e faltas por região desde a subida; zerados se hibernate.generate_statistics estiver desligado */
+    public List<CacheRegionStatsDto> getRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return REGIONS.stream()
+                .map(region -> toDto(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+    }
+
+    private static CacheRegionStatsDto toDto(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return new CacheRegionStatsDto(region, 0, 0, 0, 0.0);
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : 0.0;
+        return new CacheRegionStatsDto(region, hits, misses, stats.getPutCount(), hitRatio);
+    }
+}
@@ -1,20 +1,30 @@
 package br.com.udesc.turma_do_gatil_back.services;
 
 import br.com.udesc.turma_do_gatil_back.dto.SterilizationDaysDto;
+import br.com.udesc.turma_do_gatil_back.dto.SterilizationDto;
 import br.com.udesc.turma_do_gatil_back.entities.Sterilization;
 import br.com.udesc.turma_do_gatil_back.enums.SterilizationStatus;
 import br.com.udesc.turma_do_gatil_back.exceptions.SterilizationNotFoundException;
+import br.com.udesc.turma_do_gatil_back.repositories.BulkWriteRepository;
 import br.com.udesc.turma_do_gatil_back.repositories.SterilizationRepository;
+import br.com.udesc.turma_do_gatil_back.repositories.support.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -23,20 +33,23 @@ public class SterilizationService {
 
     private final SterilizationRepository sterilizationRepository;
     private final PropertiesService propertiesService;
-    private final SecurityService securityService;
+    private final CatService catService;
 
+    @Transactional(readOnly = true)
     public Page<Sterilization> findAll(Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding all sterilizations with pageable: {}", pageable);
         return sterilizationRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Sterilization> findById(UUID id) {
         Objects.requireNonNull(id, "ID cannot be null");
         log.debug("Finding sterilization by id: {}", id);
         return sterilizationRepository.findById(id);
     }
 
+    @Transactional
     public Sterilization save(Sterilization sterilization) {
         Objects.requireNonNull(sterilization, "Sterilization cannot be null");
         validateSterilization(sterilization);
@@ -45,10 +58,32 @@ public class SterilizationService {
                 sterilization.getCatId(), sterilization.getStatus());
 
         Sterilization savedSterilization = sterilizationRepository.save(sterilization);
+        catService.refreshSterilizationState(savedSterilization.getCatId());
         log.debug("Sterilization saved with id: {}", savedSterilization.getId());
         return savedSterilization;
     }
 
+    @Transactional
+    public List<Sterilization> saveAll(List<Sterilization> sterilizations) {
+        Objects.requireNonNull(sterilizations, "Sterilizations cannot be null");
+        BulkWriteRepository.validateBatchSize(sterilizations.size());
+        sterilizations.forEach(sterilization -> {
+            Objects.requireNonNull(sterilization, "Sterilization cannot be null");
+            validateSterilization(sterilization);
+            sterilization.setId(null);
+        });
+
+        log.info("Saving batch of {} sterilizations", sterilizations.size());
+
+        List<Sterilization> savedSterilizations = sterilizationRepository.persistAll(sterilizations);
+        catService.refreshSterilizationState(savedSterilizations.stream()
+                .map(Sterilization::getCatId)
+                .collect(Collectors.toSet()));
+        log.debug("Batch of {} sterilizations saved", savedSterilizations.size());
+        return savedSterilizations;
+    }
+
+    @Transactional
     public Sterilization update(UUID id, Sterilization sterilization) {
         Objects.requireNonNull(id, "ID cannot be null");
         Objects.requireNonNull(sterilization, "Sterilization cannot be null");
@@ -56,48 +91,103 @@ public class SterilizationService {
 
         log.info("Updating sterilization with id: {}", id);
 
-        if (!existsById(id)) {
-            throw new SterilizationNotFoundException(id);
-        }
+        Sterilization current = sterilizationRepository.findById(id)
+                .orElseThrow(() -> new SterilizationNotFoundException(id));
+        current.checkVersion(sterilization.getVersion());
+        UUID previousCatId = current.getCatId();
 
         sterilization.setId(id);
+        sterilization.setVersion(current.getVersion());
         Sterilization updatedSterilization = sterilizationRepository.save(sterilization);
+        catService.refreshSterilizationState(updatedSterilization.getCatId());
+        if (!previousCatId.equals(updatedSterilization.getCatId())) {
+            catService.refreshSterilizationState(previousCatId);
+        }
         log.debug("Sterilization updated successfully: {}", id);
         return updatedSterilization;
     }
 
-    public void deleteById(UUID id) {
+    @Transactional
+    public List<Sterilization> updateAll(List<Sterilization> sterilizations) {
+        Objects.requireNonNull(sterilizations, "Sterilizations cannot be null");
+        BulkWriteRepository.validateBatchSize(sterilizations.size());
+
+        Set<UUID> ids = new HashSet<>();
+        sterilizations.forEach(sterilization -> {
+            Objects.requireNonNull(sterilization, "Sterilization cannot be null");
+            Objects.requireNonNull(sterilization.getId(), "ID cannot be null");
+            validateSterilization(sterilization);
+            if (!ids.add(sterilization.getId())) {
+                throw new IllegalArgumentException("Duplicate sterilization ID in batch: " + sterilization.getId());
+            }
+        });
+
+        log.info("Updating batch of {} sterilizations", sterilizations.size());
+
+        Map<UUID, UUID> previousCatIds = sterilizationRepository.findCatIds(ids).stream()
+                .collect(Collectors.toMap(row -> (UUID) row[0], row -> (UUID) row[1]));
+        ids.stream()
+                .filter(id -> !previousCatIds.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new SterilizationNotFoundException(id);
+                });
+
+        List<Sterilization> updatedSterilizations = sterilizationRepository.mergeAll(sterilizations);
+
+        // Gatos de destino e de origem, caso a esterilização tenha mudado de gato
+        Set<UUID> affectedCatIds = new HashSet<>(previousCatIds.values());
+        updatedSterilizations.forEach(sterilization -> affectedCatIds.add(sterilization.getCatId()));
+        catService.refreshSterilizationState(affectedCatIds);
+
+        log.debug("Batch of {} sterilizations updated", updatedSterilizations.size());
+        return updatedSterilizations;
+    }
+
+    @Transactional
+    public void deleteById(UUID id, Long expectedVersion) {
         Objects.requireNonNull(id, "ID cannot be null");
         log.info("Deleting sterilization with id: {}", id);
 
         Sterilization sterilization = sterilizationRepository.findById(id)
                 .orElseThrow(() -> new SterilizationNotFoundException(id));
+        sterilization.checkVersion(expectedVersion);
 
-        sterilization.setDeletedBy(securityService.getCurrentUsername());
         sterilizationRepository.delete(sterilization);
+        catService.refreshSterilizationState(sterilization.getCatId());
         log.debug("Sterilization soft deleted successfully: {}", id);
     }
 
-    public Page<Sterilization> findByCatId(UUID catId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<SterilizationDto> findByCatId(UUID catId, Pageable pageable) {
         Objects.requireNonNull(catId, "Cat ID cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding sterilizations by cat id: {}", catId);
         return sterilizationRepository.findByCatId(catId, pageable);
     }
 
-    public Page<Sterilization> findByStatus(SterilizationStatus status, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<SterilizationDto> findByStatus(SterilizationStatus status, Pageable pageable) {
         Objects.requireNonNull(status, "Status cannot be null");
         Objects.requireNonNull(pageable, "Pageable cannot be null");
         log.debug("Finding sterilizations by status: {}", status);
         return sterilizationRepository.findByStatus(status, pageable);
     }
 
+    @Transactional(readOnly = true)
     public long countByStatus(SterilizationStatus status) {
         Objects.requireNonNull(status, "Status cannot be null");
         log.debug("Counting sterilizations by status: {}", status);
         return sterilizationRepository.countByStatus(status);
     }
 
+    @Transactional(readOnly = true)
+    public Map<SterilizationStatus, Long> countGroupedByStatus() {
+        log.debug("Counting sterilizations grouped by status");
+        return sterilizationRepository.countGroupedByStatus();
+    }
+
+    @Transactional(readOnly = true)
     public Page<Sterilization> findByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         Objects.requireNonNull(startDate, "Start date cannot be null");
         Objects.requireNonNull(endDate, "End date cannot be null");
@@ -108,8 +198,9 @@ public class SterilizationService {
         return sterilizationRepository.findBySterilizationDateBetween(startDate, endDate, pageable);
     }
 
-    public Page<Sterilization> findWithFilters(UUID catId, SterilizationStatus status,
-                                               LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<SterilizationDto> findWithFilters(UUID catId, SterilizationStatus status,
+                                                  LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         Objects.requireNonNull(pageable, "Pageable cannot be null");
 
         if (startDate != null && endDate != null) {
@@ -121,8 +212,33 @@ public class SterilizationService {
         return sterilizationRepository.findWithFilters(catId, status, startDate, endDate, pageable);
     }
 
-    private boolean existsById(UUID id) {
-        return sterilizationRepository.existsById(id);
+    @Transactional(readOnly = true)
+    public Slice<SterilizationDto> findSliceWithFilters(UUID catId, SterilizationStatus status,
+                                                        LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        Objects.requireNonNull(pageable, "Pageable cannot be null");
+
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+
+        log.debug("Finding sterilization slice with filters - catId: {}, status: {}, dateRange: {} to {}",
+                catId, status, startDate, endDate);
+        return sterilizationRepository.findSliceWithFilters(catId, status, startDate, endDate, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<SterilizationDto> scrollWithFilters(UUID catId, SterilizationStatus status,
+                                                     LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+
+        KeysetCursor.validateSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        log.debug("Scrolling sterilizations with filters - catId: {}, status: {}, dateRange: {} to {}, after: {}",
+                catId, status, startDate, endDate, after != null ? after.getId() : null);
+        return sterilizationRepository.scrollWithFilters(catId, status, startDate, endDate,
+                after != null ? after.keyAsDateTime() : null, after != null ? after.getId() : null, size);
     }
 
     private void validateSterilization(Sterilization sterilization) {
@@ -141,15 +257,14 @@ public class SterilizationService {
     }
 
     public SterilizationDaysDto getSterilizationDays() {
-        String min = propertiesService.getProperty("sterilizationMinDays");
-        String max = propertiesService.getProperty("sterilizationMaxDays");
-        int minDays = Integer.parseInt(min);
-        int maxDays = Integer.parseInt(max);
+        int minDays = propertiesService.getMinimumSterilizationAgeDays();
+        int maxDays = propertiesService.getOverdueSterilizationAgeDays();
         return new SterilizationDaysDto(minDays, maxDays);
     }
 
+    @Transactional
     public void setSterilizationDays(SterilizationDaysDto dto) {
-        propertiesService.setProperty("sterilizationMinDays", String.valueOf(dto.getMinDays()));
-        propertiesService.setProperty("sterilizationMaxDays", String.valueOf(dto.getMaxDays()));
+        propertiesService.setProperty(PropertiesService.STERILIZATION_MIN_DAYS, String.valueOf(dto.getMinDays()));
+        propertiesService.setProperty(PropertiesService.STERILIZATION_MAX_DAYS, String.valueOf(dto.getMaxDays()));
     }
 }
@@ -0,0 +1,75 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.entities.User;
+import br.com.udesc.turma_do_gatil_back.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versão mínima de token aceita por usuário, mantida em memória para que a autenticação
+ * stateless não precise consultar o banco. Só guarda usuários que já revogaram tokens.
+ * As versões só crescem, então recarregamentos e alterações locais são combinados pelo máximo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final UserRepository userRepository;
+
+    private final Map<UUID, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void reload() {
+        userRepository.findTokenRevocations()
+                .forEach(row -> record((UUID) row[0], ((Number) row[1]).intValue()));
+        log.debug("Token revocations loaded for {} users", minimumVersions.size());
+    }
+
+    /** Traz revogações feitas por outras instâncias */
+    @Scheduled(fixedDelayString = "${security.token-revocation.refresh-interval-ms:60000}")
+    public void refresh() {
+        reload();
+    }
+
+    public boolean isRevoked(UUID userId, int tokenVersion) {
+        Integer minimumVersion = minimumVersions.get(userId);
+        return minimumVersion != null && tokenVersion < minimumVersion;
+    }
+
+    /**
+     * Registra a versão atual do usuário (ou revoga tudo, se removido). Dentro de uma transação
+     * só vale após o commit, para que um rollback não rejeite tokens ainda válidos.
+     */
+    public void onUserChanged(User user, boolean removed) {
+        UUID userId = user.getId();
+        int minimumVersion = removed ? Integer.MAX_VALUE : user.getTokenVersion();
+        if (minimumVersion == 0) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(userId, minimumVersion);
+                }
+            });
+        } else {
+            record(userId, minimumVersion);
+        }
+    }
+
+    private void record(UUID userId, int minimumVersion) {
+        minimumVersions.merge(userId, minimumVersion, Math::max);
+    }
+}
@@ -0,0 +1,8 @@
+-- Composite indexes for keyset (cursor) pagination
+-- V13__create_keyset_pagination_indexes.sql
+
+-- Each index matches the ORDER BY of the /scroll endpoints so the next page is a range scan
+CREATE INDEX IF NOT EXISTS idx_cats_name_id ON cats(name, id) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_adoptions_adoption_date_id ON adoptions(adoption_date DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_date_id ON notes(date DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_sterilizations_date_id ON sterilizations(sterilization_date DESC, id DESC) WHERE deleted_at IS NULL;
@@ -0,0 +1,5 @@
+-- Add optimistic version column to properties
+-- V14__add_version_to_properties.sql
+
+-- The in-memory properties snapshot compares SUM(version) to detect changes made by other nodes
+ALTER TABLE properties ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,24 @@
+-- Denormalized sterilization state on cats
+-- V15__add_sterilization_state_to_cats.sql
+
+-- Kept current by SterilizationService on every write; avoids a NOT EXISTS over sterilizations per cat
+ALTER TABLE cats
+    ADD COLUMN sterilized_or_scheduled BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN last_sterilization_date TIMESTAMP;
+
+-- Backfill from existing (non deleted) sterilizations
+UPDATE cats c
+SET sterilized_or_scheduled = EXISTS (
+        SELECT 1 FROM sterilizations s
+        WHERE s.cat_id = c.id
+          AND s.deleted_at IS NULL
+          AND s.status IN ('COMPLETED', 'SCHEDULED')),
+    last_sterilization_date = (
+        SELECT MAX(s.sterilization_date) FROM sterilizations s
+        WHERE s.cat_id = c.id
+          AND s.deleted_at IS NULL
+          AND s.status IN ('COMPLETED', 'SCHEDULED'));
+
+-- Cats still waiting for sterilization, ordered by birth date for the age range scans
+CREATE INDEX IF NOT EXISTS idx_cats_needing_sterilization ON cats(birth_date)
+    WHERE sterilized_or_scheduled = FALSE AND deleted_at IS NULL;
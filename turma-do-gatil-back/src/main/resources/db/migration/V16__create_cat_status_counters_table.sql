@@ -0,0 +1,14 @@
+-- Materialized cat counts per adoption status
+-- V16__create_cat_status_counters_table.sql
+
+-- Updated in the same transaction as every cat write; read instead of COUNT(*) over cats
+CREATE TABLE IF NOT EXISTS cat_status_counters (
+    adoption_status VARCHAR(50) PRIMARY KEY,
+    cat_count BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO cat_status_counters (adoption_status, cat_count)
+SELECT status.adoption_status, COUNT(c.id)
+FROM (VALUES ('NAO_ADOTADO'), ('EM_PROCESSO'), ('ADOTADO')) AS status(adoption_status)
+LEFT JOIN cats c ON c.adoption_status = status.adoption_status AND c.deleted_at IS NULL
+GROUP BY status.adoption_status;
@@ -0,0 +1,21 @@
+-- Trigram indexes for the substring text filters
+-- V17__create_trigram_search_indexes.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The filters compile to lower(column) LIKE '%term%'; each index is built on the same expression
+CREATE INDEX IF NOT EXISTS idx_cats_name_trgm ON cats
+    USING gin (lower(name) gin_trgm_ops) WHERE deleted_at IS NULL;
+
+-- A single full name index also serves matches on the first or last name alone
+CREATE INDEX IF NOT EXISTS idx_adopters_full_name_trgm ON adopters
+    USING gin (lower(first_name || ' ' || last_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_adopters_email_trgm ON adopters
+    USING gin (lower(email) gin_trgm_ops) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_adopters_cpf_trgm ON adopters
+    USING gin (cpf gin_trgm_ops) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notes_text_trgm ON notes
+    USING gin (lower(text) gin_trgm_ops) WHERE deleted_at IS NULL;
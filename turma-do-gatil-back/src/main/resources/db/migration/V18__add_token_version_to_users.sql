@@ -0,0 +1,5 @@
+-- Token version per user for stateless JWT authentication
+-- V18__add_token_version_to_users.sql
+
+-- Embedded in every JWT as the "ver" claim; bumping it revokes all tokens issued before
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- Content-addressed registry of uploaded images
+-- V19__create_image_blobs_table.sql
+
+-- One row per distinct SHA-256 digest; uploads with a known digest reuse object_key instead of storing the bytes again
+CREATE TABLE IF NOT EXISTS image_blobs (
+    digest VARCHAR(64) PRIMARY KEY,
+    object_key VARCHAR(255) NOT NULL UNIQUE,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    -- Rows in cats.photo_url and adoptions.adoption_term_photo pointing at the object, recomputed by the garbage collector
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_referenced_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Garbage collection only looks at unreferenced blobs, oldest first
+CREATE INDEX IF NOT EXISTS idx_image_blobs_unreferenced ON image_blobs (last_referenced_at) WHERE ref_count = 0;
@@ -0,0 +1,11 @@
+-- Add optimistic version column to every auditable table
+-- V20__add_version_to_auditable_tables.sql
+
+-- Checked on every update (WHERE version = ?) and exposed to clients as the ETag of each record
+ALTER TABLE cats ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE adopters ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE addresses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE adoptions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sterilizations ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE notes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
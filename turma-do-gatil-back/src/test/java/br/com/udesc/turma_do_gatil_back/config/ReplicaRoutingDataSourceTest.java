@@ -0,0 +1,233 @@
+package br.com.udesc.turma_do_gatil_back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Roteamento do {@link ReplicaRoutingDataSource} com pools simulados: cada pool devolve sempre a mesma
+ * conexão, então a conexão recebida diz para onde a transação foi. As transações são só o estado do
+ * {@link TransactionSynchronizationManager}, como o JpaTransactionManager deixaria.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG_SECONDS = 5;
+    private static final Duration READ_YOUR_WRITES = Duration.ofMillis(300);
+
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final HikariDataSource replicaA = mock(HikariDataSource.class);
+    private final HikariDataSource replicaB = mock(HikariDataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaAConnection = mock(Connection.class);
+    private final Connection replicaBConnection = mock(Connection.class);
+
+    private String currentUser = "ana";
+    private ReplicaRoutingDataSource router;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-a", replicaA);
+        router = new ReplicaRoutingDataSource(primary, replicas, MAX_LAG_SECONDS, READ_YOUR_WRITES,
+                () -> Optional.of(currentUser));
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionGoesToAReplica() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenReplicas() throws SQLException {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-a", replicaA);
+        replicas.put("replica-b", replicaB);
+        router = new ReplicaRoutingDataSource(primary, replicas, MAX_LAG_SECONDS, READ_YOUR_WRITES,
+                () -> Optional.of(currentUser));
+        replicaLag(replicaA, replicaAConnection, 0);
+        replicaLag(replicaB, replicaBConnection, 1);
+        router.refreshReplicaHealth();
+
+        assertSame(replicaAConnection, connectionIn(true));
+        assertSame(replicaBConnection, connectionIn(true));
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void readWriteTransactionGoesToThePrimary() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+
+        assertSame(primaryConnection, connectionIn(false));
+    }
+
+    @Test
+    void connectionOutsideATransactionGoesToThePrimary() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+
+        assertSame(primaryConnection, router.getConnection());
+    }
+
+    @Test
+    void writerReadsFromThePrimaryUntilTheWindowAfterCommitEnds() throws Exception {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+        connectionIn(false);
+
+        assertSame(replicaAConnection, connectionIn(true), "write not committed yet");
+
+        connectionIn(false);
+        complete(true);
+        assertSame(primaryConnection, connectionIn(true));
+
+        currentUser = "bruno";
+        assertSame(replicaAConnection, connectionIn(true), "other users keep reading from the replica");
+
+        currentUser = "ana";
+        Thread.sleep(READ_YOUR_WRITES.toMillis() + 200);
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void rollbackDoesNotStartTheWindow() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+        connectionIn(false);
+        complete(false);
+
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void laggingReplicaIsLeftOutOfRotation() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, MAX_LAG_SECONDS + 25);
+        router.refreshReplicaHealth();
+
+        assertEquals(List.of(), router.getAvailableReplicas());
+        assertSame(primaryConnection, connectionIn(true));
+    }
+
+    @Test
+    void replicaAtTheLagLimitStaysInRotation() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, MAX_LAG_SECONDS);
+        router.refreshReplicaHealth();
+
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void unreachableReplicaIsLeftOutOfRotation() throws SQLException {
+        doThrow(new SQLException("Connection refused")).when(replicaA).getConnection();
+        router.refreshReplicaHealth();
+
+        assertEquals(List.of(), router.getAvailableReplicas());
+        assertSame(primaryConnection, connectionIn(true));
+    }
+
+    @Test
+    void refusedConnectionFallsBackToThePrimaryAndLeavesTheRotation() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+        doThrow(new SQLException("Connection refused")).when(replicaA).getConnection();
+
+        assertSame(primaryConnection, connectionIn(true));
+        assertEquals(List.of(), router.getAvailableReplicas());
+    }
+
+    @Test
+    void replicaRejoinsOnTheNextHealthyCheck() throws SQLException {
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+        doThrow(new SQLException("Connection refused")).when(replicaA).getConnection();
+        connectionIn(true);
+
+        replicaLag(replicaA, replicaAConnection, MAX_LAG_SECONDS + 1);
+        router.refreshReplicaHealth();
+        assertSame(primaryConnection, connectionIn(true), "still lagging");
+
+        replicaLag(replicaA, replicaAConnection, 0);
+        router.refreshReplicaHealth();
+        assertEquals(List.of("replica-a"), router.getAvailableReplicas());
+        assertSame(replicaAConnection, connectionIn(true));
+    }
+
+    @Test
+    void perCallCredentialsAreNotSupported() {
+        assertThrows(SQLFeatureNotSupportedException.class, () -> router.getConnection("ana", "secret"));
+    }
+
+    /**
+     * Na próxima verificação de saúde a réplica responde o atraso dado; depois devolve {@code connection}
+     * para as transações.
+     */
+    private static void replicaLag(HikariDataSource replica, Connection connection, double lagSeconds)
+            throws SQLException {
+        Connection checkConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(checkConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaRoutingDataSource.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+
+        doReturn(checkConnection, connection).when(replica).getConnection();
+    }
+
+    /**
+     * Conexão pedida dentro de uma transação nova; a transação fica aberta até {@link #complete} ou
+     * até a próxima.
+     */
+    private Connection connectionIn(boolean readOnly) throws SQLException {
+        clearTransaction();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return router.getConnection();
+    }
+
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertFalse(synchronizations.isEmpty(), "router registered no synchronization");
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        int status = committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        clearTransaction();
+    }
+}
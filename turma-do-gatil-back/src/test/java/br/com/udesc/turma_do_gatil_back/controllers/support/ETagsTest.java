@@ -0,0 +1,50 @@
+package br.com.udesc.turma_do_gatil_back.controllers.support;
+
+import br.com.udesc.turma_do_gatil_back.exceptions.VersionConflictException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ETagsTest {
+
+    @ParameterizedTest(name = "[{0}]")
+    @NullSource
+    @ValueSource(strings = {"", "  ", "*", " * "})
+    void missingHeaderOrWildcardMeansCurrentVersion(String ifMatch) {
+        assertNull(ETags.parseIfMatch(ifMatch));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"\"3\"", " \"3\" ", "W/\"3\"", "\"3;cat=7;adopter=2;address=none\""})
+    void versionIsReadFromStrongWeakAndExpandedTags(String ifMatch) {
+        assertEquals(3L, ETags.parseIfMatch(ifMatch));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"3", "\"3", "3\"", "\"", "W/3", "'3'"})
+    void unquotedTagIsBadRequest(String ifMatch) {
+        assertThrows(IllegalArgumentException.class, () -> ETags.parseIfMatch(ifMatch));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"\"1\", \"2\"", "\"1\",\"2\"", "W/\"1\", \"2\"", "\"1\", *"})
+    void listOfTagsIsBadRequest(String ifMatch) {
+        assertThrows(IllegalArgumentException.class, () -> ETags.parseIfMatch(ifMatch));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"\"abc\"", "\"\"", "\"3.0\"", "\";cat=7\"", "\"99999999999999999999\""})
+    void tagThatIsNotAVersionIsPreconditionFailed(String ifMatch) {
+        assertThrows(VersionConflictException.class, () -> ETags.parseIfMatch(ifMatch));
+    }
+
+    @Test
+    void wildcardInsideQuotesIsNotAWildcard() {
+        assertThrows(VersionConflictException.class, () -> ETags.parseIfMatch("\"*\""));
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.udesc.turma_do_gatil_back.mappers;
+
+import br.com.udesc.turma_do_gatil_back.enums.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExportWriterTest {
+
+    @ParameterizedTest(name = "prefixo {0}")
+    @ValueSource(strings = {"=", "+", "-", "@"})
+    void textStartingWithFormulaCharacterIsPrefixed(String prefix) {
+        assertEquals("'" + prefix + "SUM(A1:A9)", csvLine(prefix + "SUM(A1:A9)"));
+    }
+
+    @Test
+    void textStartingWithTabIsPrefixed() {
+        assertEquals("'\t=1+1", csvLine("\t=1+1"));
+    }
+
+    @Test
+    void textStartingWithCarriageReturnIsPrefixedAndQuoted() {
+        assertEquals("\"'\r=1+1\"", csvLine("\r=1+1"));
+    }
+
+    @Test
+    void formulaCharacterInsideTheTextIsKept() {
+        assertEquals("Mia = Luna", csvLine("Mia = Luna"));
+    }
+
+    @Test
+    void prefixedFormulaIsQuotedWhenItHasSeparators() {
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"", csvLine("=HYPERLINK(\"http://x\",\"y\")"));
+    }
+
+    @Test
+    void numbersAndEnumsAreNotPrefixed() {
+        assertEquals("-5", csvLine(-5));
+        assertEquals("-0.5", csvLine(new BigDecimal("-0.5")));
+        assertEquals("CSV", csvLine(ExportFormat.CSV));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "comma | `Rua A, 10` | `\"Rua A, 10\"`",
+            "quote | `Gato \"Mimi\"` | `\"Gato \"\"Mimi\"\"\"`",
+    })
+    void valuesWithSeparatorsAreQuoted(String ignoredName, String value, String expected) {
+        assertEquals(expected, csvLine(value));
+    }
+
+    @Test
+    void valuesWithLineBreaksAreQuoted() {
+        assertEquals("\"linha 1\nlinha 2\"", csvLine("linha 1\nlinha 2"));
+        assertEquals("\"linha 1\r\nlinha 2\"", csvLine("linha 1\r\nlinha 2"));
+    }
+
+    @Test
+    void nullAndEmptyValuesAreEmptyFields() {
+        Map<String, Function<String[], Object>> columns = new LinkedHashMap<>();
+        columns.put("a", row -> row[0]);
+        columns.put("b", row -> row[1]);
+        columns.put("c", row -> row[2]);
+
+        assertEquals("a,b,c\n,,x\n", csv(columns, new String[]{null, "", "x"}));
+    }
+
+    private static String csvLine(Object value) {
+        Map<String, Function<Object, Object>> columns = Map.of("value", row -> row);
+        String csv = csv(columns, value);
+        return csv.substring("value\n".length(), csv.length() - 1);
+    }
+
+    private static <T> String csv(Map<String, Function<T, Object>> columns, T row) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportWriter<T> writer = new ExportWriter<>(ExportFormat.CSV, new ObjectMapper(), columns, output);
+        writer.writeHeader();
+        writer.write(row);
+        writer.flush();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
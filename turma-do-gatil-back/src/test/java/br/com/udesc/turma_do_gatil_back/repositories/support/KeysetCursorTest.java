@@ -0,0 +1,91 @@
+package br.com.udesc.turma_do_gatil_back.repositories.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    private static final UUID ID = UUID.fromString("5f0c6a2e-8d3b-4c1a-9e7f-2b4d6c8a0e13");
+
+    @ParameterizedTest(name = "[{0}]")
+    @NullSource
+    @ValueSource(strings = {"", "   "})
+    void missingCursorStartsFromTheFirstPage(String cursor) {
+        assertNull(KeysetCursor.decode(cursor));
+    }
+
+    @ParameterizedTest(name = "[{0}]")
+    @ValueSource(strings = {"Mia", "Mia | Luna", "||", "", "Café ç 😺", "a+b/c="})
+    void encodedCursorDecodesToTheSameKeyAndId(String key) {
+        String cursor = KeysetCursor.of(key, ID).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor);
+
+        assertEquals(key, decoded.getKey());
+        assertEquals(ID, decoded.getId());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String cursor = KeysetCursor.of("??>>~~", ID).encode();
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), cursor);
+    }
+
+    @Test
+    void dateKeyRoundTrips() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 9, 14, 30, 5);
+
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(date, ID).encode());
+
+        assertEquals(date, decoded.keyAsDateTime());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"não é base64!", "abc*", "a"})
+    void invalidBase64IsRejected(String cursor) {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"Mia", "Mia|", "Mia|not-a-uuid", "|", "5f0c6a2e-8d3b-4c1a-9e7f-2b4d6c8a0e13|Mia"})
+    void cursorWithoutAnIdAfterTheLastSeparatorIsRejected(String raw) {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(base64(raw)));
+    }
+
+    @Test
+    void keyThatIsNotADateIsRejected() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of("Mia", ID).encode());
+
+        assertThrows(IllegalArgumentException.class, cursor::keyAsDateTime);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(ints = {1, 20, KeysetCursor.MAX_SIZE})
+    void sizeWithinLimitsIsAccepted(int size) {
+        assertDoesNotThrow(() -> KeysetCursor.validateSize(size));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(ints = {Integer.MIN_VALUE, -1, 0, KeysetCursor.MAX_SIZE + 1, Integer.MAX_VALUE})
+    void sizeOutsideLimitsIsRejected(int size) {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.validateSize(size));
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import br.com.udesc.turma_do_gatil_back.dto.AdoptionDto;
+import br.com.udesc.turma_do_gatil_back.entities.Address;
+import br.com.udesc.turma_do_gatil_back.entities.Adopter;
+import br.com.udesc.turma_do_gatil_back.entities.Adoption;
+import br.com.udesc.turma_do_gatil_back.entities.Cat;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionExpansion;
+import br.com.udesc.turma_do_gatil_back.enums.AdoptionStatus;
+import br.com.udesc.turma_do_gatil_back.enums.Color;
+import br.com.udesc.turma_do_gatil_back.enums.Sex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A listagem de adoções executa o mesmo número de comandos SQL qualquer que seja o tamanho da página,
+ * com ou sem expand: gato, adotante e endereço vêm na mesma consulta, nunca um SELECT por linha.
+ *
+ * <p>As estatísticas do Hibernate são globais, então as atualizações periódicas ficam fora da janela do teste.
+ */
+@SpringBootTest(properties = {
+        "properties.cache.refresh-interval-ms=3600000",
+        "security.token-revocation.refresh-interval-ms=3600000"
+})
+@Transactional
+class AdoptionListingStatementCountTest {
+
+    // Datas só das adoções criadas aqui, longe dos dados já existentes no banco
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2199, 1, 1, 0, 0);
+    private static final LocalDateTime WINDOW_END = WINDOW_START.plusDays(1);
+    private static final int ADOPTIONS = 25;
+
+    @Autowired
+    private AdoptionService adoptionService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void createAdoptions() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < ADOPTIONS; i++) {
+            Cat cat = new Cat();
+            cat.setName("Statement count " + run + " " + i);
+            cat.setColor(Color.BLACK);
+            cat.setSex(Sex.FEMALE);
+            cat.setShelterEntryDate(WINDOW_START.minusYears(1));
+            entityManager.persist(cat);
+
+            Adopter adopter = new Adopter();
+            adopter.setFirstName("Adopter" + i);
+            adopter.setLastName(run);
+            adopter.setCpf(String.format("9%02d%08d", i, Math.floorMod(run.hashCode(), 100_000_000)));
+            adopter.setPhone("48999999999");
+            adopter.setEmail(run + "-" + i + "@statement-count.test");
+            adopter.setRegistrationDate(WINDOW_START.minusYears(1));
+            entityManager.persist(adopter);
+
+            // Metade com endereço, para cobrir o left join nos dois casos
+            if (i % 2 == 0) {
+                Address address = new Address();
+                address.setStreet("Rua " + i);
+                address.setNeighborhood("Centro");
+                address.setCity("Joinville");
+                address.setState("SC");
+                address.setNumber(String.valueOf(i));
+                address.setZipCode("89200000");
+                address.setAdopter(adopter);
+                entityManager.persist(address);
+            }
+
+            Adoption adoption = new Adoption();
+            adoption.setCatId(cat.getId());
+            adoption.setAdopterId(adopter.getId());
+            adoption.setAdoptionDate(WINDOW_START.plusMinutes(i));
+            adoption.setStatus(AdoptionStatus.COMPLETED);
+            entityManager.persist(adoption);
+        }
+
+        // Nada pode vir do contexto de persistência nem do cache de segundo nível, senão um N+1 passaria despercebido
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    @ParameterizedTest(name = "expand=\"{0}\"")
+    @ValueSource(strings = {"", "cat", "adopter", "cat,adopter"})
+    void statementCountDoesNotDependOnPageSize(String expand) {
+        Set<AdoptionExpansion> expansions = AdoptionExpansion.parse(expand);
+
+        long smallPage = statementsToList(5, expansions);
+        long largePage = statementsToList(20, expansions);
+
+        assertEquals(smallPage, largePage,
+                "Listing adoptions with expand=" + expansions + " ran a different number of statements for 5 and 20 rows");
+    }
+
+    private long statementsToList(int pageSize, Set<AdoptionExpansion> expansions) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled(), "hibernate.generate_statistics must be enabled");
+
+        entityManager.clear();
+        statistics.clear();
+        Page<AdoptionDto> page = adoptionService.findWithFilters(null, null, null, null, null, WINDOW_START, WINDOW_END,
+                PageRequest.of(0, pageSize, Sort.by("adoptionDate")), expansions);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        page.getContent().forEach(adoption -> {
+            if (expansions.contains(AdoptionExpansion.CAT)) {
+                assertNotNull(adoption.getCat());
+            }
+            if (expansions.contains(AdoptionExpansion.ADOPTER)) {
+                assertNotNull(adoption.getAdopter());
+            }
+        });
+        return statements;
+    }
+}
@@ -0,0 +1,188 @@
+package br.com.udesc.turma_do_gatil_back.services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ImageProcessingService#stripMetadata(byte[])} com arquivos montados byte a byte: o texto
+ * {@value #SECRET} faz o papel da localização e do aparelho que não podem sobrar no original.
+ */
+class ImageMetadataStripTest {
+
+    private static final String SECRET = "GPS -27.3,-48.8 Pixel 8";
+
+    @Test
+    void jpegLosesExifXmpAndCommentsButKeepsOrientation() throws IOException {
+        byte[] plain = image("jpeg");
+        byte[] tagged = insertAfterSoi(plain,
+                jpegSegment(0xE1, concat(ascii("Exif\0\0"), tiffWithOrientation(6), ascii(SECRET))),
+                jpegSegment(0xE1, ascii("http://ns.adobe.com/xap/1.0/\0<x:xmpmeta>" + SECRET + "</x:xmpmeta>")),
+                jpegSegment(0xED, ascii("Photoshop 3.0\0" + SECRET)),
+                jpegSegment(0xFE, ascii(SECRET)));
+
+        byte[] stripped = ImageProcessingService.stripMetadata(tagged);
+
+        assertFalse(contains(stripped, ascii(SECRET)));
+        assertFalse(contains(stripped, ascii("xmpmeta")));
+        assertTrue(contains(stripped, new byte[]{0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6}), "orientation tag kept");
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(stripped)));
+    }
+
+    @Test
+    void jpegKeepsColorSegmentsAndDropsTrailer() throws IOException {
+        byte[] plain = image("jpeg");
+        byte[] icc = jpegSegment(0xE2, concat(ascii("ICC_PROFILE\0"), new byte[]{1, 1, 9, 9}));
+        byte[] adobe = jpegSegment(0xEE, ascii("Adobe\0\0\0\0\0\0\0"));
+        byte[] tagged = concat(insertAfterSoi(plain, icc, adobe), ascii("ftypmp42" + SECRET));
+
+        byte[] stripped = ImageProcessingService.stripMetadata(tagged);
+
+        assertArrayEquals(insertAfterSoi(plain, icc, adobe), stripped);
+    }
+
+    @Test
+    void jpegWithoutMetadataIsReturnedAsIs() throws IOException {
+        byte[] plain = image("jpeg");
+
+        assertSame(plain, ImageProcessingService.stripMetadata(plain));
+    }
+
+    @Test
+    void truncatedJpegIsRejected() throws IOException {
+        byte[] tagged = insertAfterSoi(image("jpeg"), jpegSegment(0xE1, ascii("Exif\0\0" + SECRET)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageProcessingService.stripMetadata(Arrays.copyOf(tagged, 30)));
+    }
+
+    @Test
+    void pngLosesTextAndExifChunks() throws IOException {
+        byte[] plain = image("png");
+        byte[] tagged = insertAfterIhdr(plain,
+                pngChunk("tEXt", ascii("Author\0" + SECRET)),
+                pngChunk("iTXt", ascii("XML:com.adobe.xmp\0\0\0\0\0" + SECRET)),
+                pngChunk("eXIf", concat(tiffWithOrientation(1), ascii(SECRET))));
+
+        byte[] stripped = ImageProcessingService.stripMetadata(concat(tagged, ascii(SECRET)));
+
+        assertArrayEquals(plain, stripped);
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(stripped)));
+    }
+
+    @Test
+    void pngWithoutMetadataIsReturnedAsIs() throws IOException {
+        byte[] plain = image("png");
+
+        assertSame(plain, ImageProcessingService.stripMetadata(plain));
+    }
+
+    @Test
+    void webpLosesExifAndXmpChunksAndTheirFlags() {
+        byte[] extendedHeader = {0x0C | 0x10, 0, 0, 0, 9, 0, 0, 9, 0, 0};
+        byte[] bitstream = {1, 2, 3, 4, 5, 6, 7};
+        byte[] tagged = webp(
+                riffChunk("VP8X", extendedHeader),
+                riffChunk("VP8L", bitstream),
+                riffChunk("EXIF", ascii(SECRET)),
+                riffChunk("XMP ", ascii("<x:xmpmeta>" + SECRET + "</x:xmpmeta>")));
+
+        byte[] stripped = ImageProcessingService.stripMetadata(tagged);
+
+        byte[] expectedHeader = extendedHeader.clone();
+        expectedHeader[0] = 0x10;
+        assertArrayEquals(webp(riffChunk("VP8X", expectedHeader), riffChunk("VP8L", bitstream)), stripped);
+    }
+
+    @Test
+    void gifIsReturnedAsIs() throws IOException {
+        byte[] gif = image("gif");
+
+        assertSame(gif, ImageProcessingService.stripMetadata(gif));
+    }
+
+    private static byte[] image(String format) throws IOException {
+        BufferedImage image = new BufferedImage(32, 16, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(3, 3, 0xFF8800);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+
+    private static byte[] tiffWithOrientation(int orientation) {
+        return new byte[]{'M', 'M', 0, 0x2A, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+    }
+
+    private static byte[] jpegSegment(int marker, byte[] data) {
+        int length = data.length + 2;
+        return concat(new byte[]{(byte) 0xFF, (byte) marker, (byte) (length >> 8), (byte) length}, data);
+    }
+
+    private static byte[] insertAfterSoi(byte[] jpeg, byte[]... segments) {
+        return concat(Arrays.copyOf(jpeg, 2), concat(segments), Arrays.copyOfRange(jpeg, 2, jpeg.length));
+    }
+
+    private static byte[] pngChunk(String type, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(ascii(type));
+        crc.update(data);
+        return ByteBuffer.allocate(12 + data.length)
+                .putInt(data.length).put(ascii(type)).put(data).putInt((int) crc.getValue())
+                .array();
+    }
+
+    /** Assinatura (8) + IHDR (12 + 13) */
+    private static byte[] insertAfterIhdr(byte[] png, byte[]... chunks) {
+        return concat(Arrays.copyOf(png, 33), concat(chunks), Arrays.copyOfRange(png, 33, png.length));
+    }
+
+    private static byte[] riffChunk(String type, byte[] data) {
+        ByteBuffer chunk = ByteBuffer.allocate(8 + data.length + (data.length & 1)).order(ByteOrder.LITTLE_ENDIAN);
+        return chunk.put(ascii(type)).putInt(data.length).put(data).array();
+    }
+
+    private static byte[] webp(byte[]... chunks) {
+        byte[] body = concat(ascii("WEBP"), concat(chunks));
+        return ByteBuffer.allocate(8 + body.length).order(ByteOrder.LITTLE_ENDIAN)
+                .put(ascii("RIFF")).putInt(body.length).put(body)
+                .array();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            output.writeBytes(part);
+        }
+        return output.toByteArray();
+    }
+
+    private static boolean contains(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -30,10 +30,19 @@ export interface Cat {
   birthDate?: string;
   shelterEntryDate: string;
   photoUrl?: string;
+  photoVariants?: PhotoVariants | null;
   adopted: boolean;
   adoptionStatus: CatAdoptionStatus;
 }
 
+/** Versões da foto geradas no upload; listagens usam a miniatura em vez do original */
+export interface PhotoVariants {
+  thumb?: string;
+  w320?: string;
+  w640?: string;
+  w1280?: string;
+}
+
 export interface CatRequest {
   name: string;
   color: Color;
@@ -1,3 +1,5 @@
+import { PhotoVariants } from './cat.model';
+
 export interface SterilizationStatsDto {
   eligibleCount: number;
   overdueCount: number;
@@ -12,6 +14,7 @@ export interface CatSterilizationStatusDto {
   birthDate: string;
   shelterEntryDate: string;
   photoUrl?: string;
+  photoVariants?: PhotoVariants | null;
   ageInDays: number;
   sterilizationStatus: 'ELIGIBLE' | 'OVERDUE';
 }
@@ -21,6 +24,7 @@ export interface SterilizationDto {
   catId: string;
   cat: string; // Cat name as string
   photoUrl?: string; // Photo URL directly on sterilization object
+  photoVariants?: PhotoVariants | null;
   sterilizationDate: string;
   status: 'SCHEDULED' | 'COMPLETED' | 'CANCELED';
   notes?: string;
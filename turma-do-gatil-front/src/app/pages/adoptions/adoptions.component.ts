@@ -696,7 +696,7 @@ export class AdoptionsComponent implements OnInit, OnDestroy {
   private getCatPhoto(catId: string | undefined): string {
     if (!catId) return '/assets/images/default-cat.svg';
     const cat = this.catsMap.get(catId);
-    return cat?.photoUrl || '/assets/images/default-cat.svg';
+    return cat?.photoVariants?.thumb || cat?.photoUrl || '/assets/images/default-cat.svg';
   }
 
   // ==================== MÉTODOS LEGADOS (compatibilidade) ====================
@@ -104,7 +104,7 @@ export class AdoptionService {
   }
 
   getAdoptionsByAdopterId(adopterId: string): Observable<Adoption[]> {
-    return this.http.get<Adoption[]>(`${this.apiUrl}/adopter/${adopterId}`).pipe(
+    return this.http.get<Adoption[]>(`${this.apiUrl}/adopter/${adopterId}`, { params: { expand: 'cat' } }).pipe(
       catchError(error => {
         this.notificationService.showHttpError(error);
         throw error;
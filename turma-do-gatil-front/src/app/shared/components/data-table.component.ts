@@ -66,8 +66,8 @@ export interface TableEmptyState {
                 <!-- Imagem -->
                 <div *ngSwitchCase="'image'" class="table-image clickable" (click)="onImageClick(item, column)">
                   <img 
-                    *ngIf="getNestedProperty(item, column.imageProperty || column.key); else imagePlaceholder" 
-                    [src]="getNestedProperty(item, column.imageProperty || column.key)" 
+                    *ngIf="getThumbnail(item, column.imageProperty || column.key); else imagePlaceholder" 
+                    [src]="getThumbnail(item, column.imageProperty || column.key)" 
                     [alt]="getNestedProperty(item, column.imageAlt || 'name')" 
                     (error)="$event.target.style.display='none'">
                   <ng-template #imagePlaceholder>
@@ -90,8 +90,8 @@ export interface TableEmptyState {
                 <!-- Cat info (gato com foto e nome) -->
                 <div *ngSwitchCase="'cat-info'" class="cat-info clickable" (click)="onImageClick(item, column)">
                   <img 
-                    *ngIf="getNestedProperty(item, 'photoUrl'); else catMiniPlaceholder" 
-                    [src]="getNestedProperty(item, 'photoUrl')" 
+                    *ngIf="getThumbnail(item, 'photoUrl'); else catMiniPlaceholder" 
+                    [src]="getThumbnail(item, 'photoUrl')" 
                     [alt]="getNestedProperty(item, 'cat')" 
                     class="cat-mini-photo"
                     (error)="$event.target.style.display='none'">
@@ -447,6 +447,15 @@ export class DataTableComponent {
     return path.split('.').reduce((current, prop) => current?.[prop], obj);
   }
 
+  /**
+   * Para fotos de gato usa a miniatura gerada no upload (photoVariants.thumb), que tem poucos KB,
+   * e só cai para a foto original quando ela não tem variantes
+   */
+  getThumbnail(obj: any, path: string): string | undefined {
+    const thumbPath = path.replace(/photoUrl$/, 'photoVariants.thumb');
+    return (thumbPath !== path && this.getNestedProperty(obj, thumbPath)) || this.getNestedProperty(obj, path);
+  }
+
   formatDate(dateString: string): string {
     if (!dateString) return '-';
     const date = new Date(dateString);